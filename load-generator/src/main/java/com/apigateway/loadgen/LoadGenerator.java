@@ -0,0 +1,140 @@
+package com.apigateway.loadgen;
+
+import org.HdrHistogram.Histogram;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * Open-loop load generator for the API Gateway
+ * Sends a fixed request rate, records coordinated-omission-free latency in HdrHistogram
+ * and reports percentiles and 429 ratios per route. Optionally runs a local stub upstream
+ * so gateway routes can point at a reproducible, offline backend.
+ */
+public class LoadGenerator {
+
+    public static void main(String[] args) throws Exception {
+        LoadGeneratorOptions options;
+        try {
+            options = LoadGeneratorOptions.parse(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.print(LoadGeneratorOptions.usage());
+            System.exit(2);
+            return;
+        }
+
+        RequestMix mix;
+        try {
+            mix = RequestMix.load(options.getMixFile(), options.isSequentialMix());
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.exit(2);
+            return;
+        } catch (IOException e) {
+            System.err.println("Cannot read request mix " + options.getMixFile() + ": " + e);
+            System.exit(2);
+            return;
+        }
+
+        StubUpstreamServer stub = null;
+        if (options.getStubPort() >= 0) {
+            stub = new StubUpstreamServer(options.getStubPort(), options.getStubLatency(), options.getStubBodyBytes());
+            stub.start();
+        }
+
+        if (options.isStubOnly()) {
+            StubUpstreamServer running = stub;
+            CountDownLatch stopped = new CountDownLatch(1);
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                running.stop();
+                stopped.countDown();
+            }));
+            stopped.await();
+            return;
+        }
+
+        try {
+            System.out.printf("Target %s, %d req/s for %ds after %ds warmup, %d request templates%n",
+                    options.getTarget(), options.getRate(), options.getDuration().toSeconds(),
+                    options.getWarmup().toSeconds(), mix.getEntries().size());
+
+            Map<String, RouteStats> stats = new OpenLoopRunner(options, mix).run();
+            report(stats, options);
+        } finally {
+            if (stub != null) {
+                stub.stop();
+            }
+        }
+        System.exit(0);
+    }
+
+    private static void report(Map<String, RouteStats> stats, LoadGeneratorOptions options) throws IOException {
+        List<RouteStats> routes = new ArrayList<>(stats.values());
+        routes.sort(Comparator.comparing(RouteStats::getRoute));
+
+        Histogram overall = new Histogram(3);
+        long completed = 0;
+        long rateLimited = 0;
+
+        System.out.println();
+        System.out.printf("%-24s %9s %9s %9s %9s %9s %8s %8s %8s %8s%n",
+                "route", "requests", "p50(ms)", "p99(ms)", "p99.9(ms)", "max(ms)", "429%", "error%", "failed", "skipped");
+        for (RouteStats route : routes) {
+            Histogram latency = route.getLatency();
+            overall.add(latency);
+            completed += route.getCompleted();
+            rateLimited += route.getRateLimited();
+            printRow(route.getRoute(), latency, route.getCompleted(), route.getRateLimited(),
+                    route.getOtherErrors(), route.getFailures(), route.getSkipped());
+        }
+        printRow("TOTAL", overall, completed, rateLimited,
+                routes.stream().mapToLong(RouteStats::getOtherErrors).sum(),
+                routes.stream().mapToLong(RouteStats::getFailures).sum(),
+                routes.stream().mapToLong(RouteStats::getSkipped).sum());
+
+        // The histogram also holds skipped sends, so count only requests that were actually sent
+        long sent = completed + routes.stream().mapToLong(RouteStats::getFailures).sum();
+        System.out.printf("%nAchieved rate: %.1f req/s (target %d)%n",
+                sent * 1e9 / options.getDuration().toNanos(), options.getRate());
+
+        long skipped = routes.stream().mapToLong(RouteStats::getSkipped).sum();
+        if (skipped > 0) {
+            System.out.printf("WARNING: %d sends were skipped at --max-in-flight and recorded with the %dms timeout "
+                    + "as latency; the upper percentiles are a lower bound%n", skipped, options.getTimeout().toMillis());
+        }
+
+        if (options.getHdrOutput() != null) {
+            try (PrintStream out = new PrintStream(new FileOutputStream(options.getHdrOutput()))) {
+                // Values are recorded in microseconds; scale to milliseconds for plotting
+                overall.outputPercentileDistribution(out, 1000.0);
+            }
+            System.out.println("Percentile distribution written to " + options.getHdrOutput());
+        }
+    }
+
+    private static void printRow(String route, Histogram latency, long completed, long rateLimited,
+                                 long otherErrors, long failures, long skipped) {
+        System.out.printf("%-24s %9d %9.2f %9.2f %9.2f %9.2f %7.2f%% %7.2f%% %8d %8d%n",
+                route,
+                latency.getTotalCount(),
+                latency.getValueAtPercentile(50) / 1000.0,
+                latency.getValueAtPercentile(99) / 1000.0,
+                latency.getValueAtPercentile(99.9) / 1000.0,
+                latency.getMaxValue() / 1000.0,
+                percent(rateLimited, completed),
+                percent(otherErrors, completed),
+                failures,
+                skipped);
+    }
+
+    private static double percent(long part, long total) {
+        return total > 0 ? part * 100.0 / total : 0;
+    }
+}
@@ -0,0 +1,163 @@
+package com.apigateway.loadgen;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Command line options for the load generator
+ * Accepts --name=value or --name value
+ */
+public class LoadGeneratorOptions {
+
+    private String target = "http://localhost:8080";
+    private int rate = 1000;                          // Requests per second, fixed regardless of latency
+    private Duration duration = Duration.ofSeconds(30);
+    private Duration warmup = Duration.ofSeconds(5);  // Sent but not recorded
+    private Duration timeout = Duration.ofSeconds(10);
+    private int maxInFlight = 10000;                  // Requests beyond this are counted as skipped
+    private String mixFile;                           // JSONL request mix, default GET /
+    private boolean sequentialMix;                    // Replay mix in file order instead of by weight
+    private String hdrOutput;                         // Write percentile distribution for plotting
+    private int stubPort = -1;                        // Start the bundled stub upstream on this port
+    private boolean stubOnly;                         // Only run the stub upstream
+    private Duration stubLatency = Duration.ZERO;
+    private int stubBodyBytes = 512;
+
+    public static LoadGeneratorOptions parse(String[] args) {
+        Map<String, String> values = new HashMap<>();
+        for (int i = 0; i < args.length; i++) {
+            String arg = args[i];
+            if (!arg.startsWith("--")) {
+                throw new IllegalArgumentException("Unexpected argument: " + arg);
+            }
+            String name = arg.substring(2);
+            String value;
+            int eq = name.indexOf('=');
+            if (eq >= 0) {
+                value = name.substring(eq + 1);
+                name = name.substring(0, eq);
+            } else if (i + 1 < args.length && !args[i + 1].startsWith("--")) {
+                value = args[++i];
+            } else {
+                value = "true";
+            }
+            values.put(name, value);
+        }
+
+        LoadGeneratorOptions options = new LoadGeneratorOptions();
+        values.forEach((name, value) -> {
+            switch (name) {
+                case "target" -> options.target = value;
+                case "rate" -> options.rate = Integer.parseInt(value);
+                case "duration" -> options.duration = parseDuration(value);
+                case "warmup" -> options.warmup = parseDuration(value);
+                case "timeout" -> options.timeout = parseDuration(value);
+                case "max-in-flight" -> options.maxInFlight = Integer.parseInt(value);
+                case "mix" -> options.mixFile = value;
+                case "sequential" -> options.sequentialMix = Boolean.parseBoolean(value);
+                case "hdr-out" -> options.hdrOutput = value;
+                case "stub-port" -> options.stubPort = Integer.parseInt(value);
+                case "stub-only" -> options.stubOnly = Boolean.parseBoolean(value);
+                case "stub-latency" -> options.stubLatency = parseDuration(value);
+                case "stub-body-bytes" -> options.stubBodyBytes = Integer.parseInt(value);
+                default -> throw new IllegalArgumentException("Unknown option: --" + name);
+            }
+        });
+
+        if (options.rate <= 0) {
+            throw new IllegalArgumentException("--rate must be positive");
+        }
+        if (options.stubOnly && options.stubPort < 0) {
+            throw new IllegalArgumentException("--stub-only requires --stub-port");
+        }
+        return options;
+    }
+
+    /**
+     * Parse durations like 500ms, 30s, 2m
+     */
+    static Duration parseDuration(String value) {
+        if (value.endsWith("ms")) {
+            return Duration.ofMillis(Long.parseLong(value.substring(0, value.length() - 2)));
+        }
+        if (value.endsWith("s")) {
+            return Duration.ofSeconds(Long.parseLong(value.substring(0, value.length() - 1)));
+        }
+        if (value.endsWith("m")) {
+            return Duration.ofMinutes(Long.parseLong(value.substring(0, value.length() - 1)));
+        }
+        return Duration.ofSeconds(Long.parseLong(value));
+    }
+
+    public static String usage() {
+        return """
+                Usage: java -jar load-generator.jar [options]
+                  --target URL          Gateway base URL (default http://localhost:8080)
+                  --rate N              Requests per second, sent open-loop (default 1000)
+                  --duration D          Measured duration, e.g. 30s, 2m (default 30s)
+                  --warmup D            Unrecorded warmup before measuring (default 5s)
+                  --timeout D           Per-request timeout (default 10s)
+                  --max-in-flight N     Outstanding requests before sends are skipped (default 10000)
+                  --mix FILE            JSONL request mix: {"route","method","path","headers","body","weight"}
+                  --sequential          Replay the mix in file order instead of by weight
+                  --hdr-out FILE        Write the overall HdrHistogram percentile distribution
+                  --stub-port PORT      Start the bundled stub upstream on PORT
+                  --stub-only           Run only the stub upstream until interrupted
+                  --stub-latency D      Stub response delay (default 0ms)
+                  --stub-body-bytes N   Stub response body size (default 512)
+                """;
+    }
+
+    public String getTarget() {
+        return target;
+    }
+
+    public int getRate() {
+        return rate;
+    }
+
+    public Duration getDuration() {
+        return duration;
+    }
+
+    public Duration getWarmup() {
+        return warmup;
+    }
+
+    public Duration getTimeout() {
+        return timeout;
+    }
+
+    public int getMaxInFlight() {
+        return maxInFlight;
+    }
+
+    public String getMixFile() {
+        return mixFile;
+    }
+
+    public boolean isSequentialMix() {
+        return sequentialMix;
+    }
+
+    public String getHdrOutput() {
+        return hdrOutput;
+    }
+
+    public int getStubPort() {
+        return stubPort;
+    }
+
+    public boolean isStubOnly() {
+        return stubOnly;
+    }
+
+    public Duration getStubLatency() {
+        return stubLatency;
+    }
+
+    public int getStubBodyBytes() {
+        return stubBodyBytes;
+    }
+}
@@ -0,0 +1,103 @@
+package com.apigateway.loadgen;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Open-loop request dispatcher
+ * Request i is due at start + i / rate no matter how earlier requests fare, and its
+ * latency is measured from that intended time. A closed loop (wait for the response,
+ * then send) slows down with the server and hides the queueing it causes, which is
+ * the coordinated omission problem.
+ */
+public class OpenLoopRunner {
+
+    private final LoadGeneratorOptions options;
+    private final RequestMix mix;
+    private final HttpClient client;
+    private final Map<String, RouteStats> stats = new ConcurrentHashMap<>();
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    public OpenLoopRunner(LoadGeneratorOptions options, RequestMix mix) {
+        this.options = options;
+        this.mix = mix;
+        // One shared async client; connections are pooled and kept alive across requests
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(options.getTimeout())
+                .executor(Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors() * 2))
+                .build();
+    }
+
+    /**
+     * Send warmup and measured traffic, then wait for outstanding responses
+     * @return stats per route for the measured period
+     */
+    public Map<String, RouteStats> run() throws InterruptedException {
+        long periodNanos = TimeUnit.SECONDS.toNanos(1) / options.getRate();
+        long start = System.nanoTime();
+        long measureStart = start + options.getWarmup().toNanos();
+        long end = measureStart + options.getDuration().toNanos();
+
+        for (long i = 0; ; i++) {
+            long intended = start + i * periodNanos;
+            if (intended >= end) {
+                break;
+            }
+            long wait = intended - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            // When behind schedule the loop sends immediately; latency still counts from 'intended'
+            dispatch(mix.next(), intended, intended >= measureStart);
+        }
+
+        long drainDeadline = System.nanoTime() + options.getTimeout().toNanos();
+        while (inFlight.get() > 0 && System.nanoTime() < drainDeadline) {
+            Thread.sleep(10);
+        }
+        return stats;
+    }
+
+    private void dispatch(RequestMix.Entry entry, long intended, boolean measured) {
+        RouteStats routeStats = measured ? stats.computeIfAbsent(entry.route(), RouteStats::new) : null;
+
+        if (inFlight.get() >= options.getMaxInFlight()) {
+            if (routeStats != null) {
+                routeStats.recordSkipped(Math.max(options.getTimeout().toNanos(), System.nanoTime() - intended));
+            }
+            return;
+        }
+
+        HttpRequest.Builder request = HttpRequest.newBuilder()
+                .uri(URI.create(options.getTarget() + entry.path()))
+                .timeout(options.getTimeout())
+                .method(entry.method(), entry.body() != null
+                        ? HttpRequest.BodyPublishers.ofString(entry.body())
+                        : HttpRequest.BodyPublishers.noBody());
+        entry.headers().forEach(request::header);
+
+        inFlight.incrementAndGet();
+        client.sendAsync(request.build(), HttpResponse.BodyHandlers.discarding())
+                .whenComplete((response, error) -> {
+                    long latency = System.nanoTime() - intended;
+                    inFlight.decrementAndGet();
+                    if (routeStats == null) {
+                        return;
+                    }
+                    if (error != null) {
+                        routeStats.recordFailure(latency);
+                    } else {
+                        routeStats.recordResponse(response.statusCode(), latency);
+                    }
+                });
+    }
+}
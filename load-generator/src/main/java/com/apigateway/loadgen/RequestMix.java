@@ -0,0 +1,124 @@
+package com.apigateway.loadgen;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Request mix replayed by the load generator
+ * Each JSONL line describes one request template; templates are picked by weight
+ * or replayed in file order
+ */
+public class RequestMix {
+
+    private final List<Entry> entries;
+    private final long[] cumulativeWeights;
+    private final long totalWeight;
+    private final boolean sequential;
+    private final AtomicLong position = new AtomicLong();
+
+    public RequestMix(List<Entry> entries, boolean sequential) {
+        if (entries.isEmpty()) {
+            throw new IllegalArgumentException("Request mix is empty");
+        }
+        this.entries = List.copyOf(entries);
+        this.sequential = sequential;
+        this.cumulativeWeights = new long[entries.size()];
+        long sum = 0;
+        for (int i = 0; i < entries.size(); i++) {
+            sum += Math.max(1, entries.get(i).weight());
+            cumulativeWeights[i] = sum;
+        }
+        this.totalWeight = sum;
+    }
+
+    public static RequestMix load(String file, boolean sequential) throws IOException {
+        if (file == null) {
+            return new RequestMix(List.of(new Entry("default", "GET", "/", Map.of(), null, 1)), sequential);
+        }
+
+        ObjectMapper mapper = new ObjectMapper()
+                .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+        List<Entry> entries = new ArrayList<>();
+        try (BufferedReader reader = Files.newBufferedReader(Path.of(file))) {
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (!line.isBlank()) {
+                    Entry entry;
+                    try {
+                        entry = mapper.readValue(line, Entry.class).withDefaults();
+                    } catch (JsonProcessingException e) {
+                        throw new IllegalArgumentException(file + ":" + lineNumber + ": " + e.getOriginalMessage());
+                    }
+                    validateHeaders(entry, file, lineNumber);
+                    entries.add(entry);
+                }
+            }
+        }
+        return new RequestMix(entries, sequential);
+    }
+
+    /**
+     * Reject headers the JDK client refuses (Host, Connection, ...) up front, so a bad
+     * mix fails at load time instead of aborting the send loop mid-run
+     */
+    private static void validateHeaders(Entry entry, String file, int lineNumber) {
+        HttpRequest.Builder probe = HttpRequest.newBuilder(URI.create("http://localhost/"));
+        entry.headers().forEach((name, value) -> {
+            try {
+                probe.header(name, value);
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException(
+                        file + ":" + lineNumber + ": header '" + name + "' cannot be sent: " + e.getMessage());
+            }
+        });
+    }
+
+    public Entry next() {
+        if (sequential) {
+            return entries.get((int) (position.getAndIncrement() % entries.size()));
+        }
+        long pick = ThreadLocalRandom.current().nextLong(totalWeight);
+        for (int i = 0; i < cumulativeWeights.length; i++) {
+            if (pick < cumulativeWeights[i]) {
+                return entries.get(i);
+            }
+        }
+        return entries.get(entries.size() - 1);
+    }
+
+    public List<Entry> getEntries() {
+        return entries;
+    }
+
+    /**
+     * One request template; route is the label results are grouped by
+     */
+    public record Entry(String route, String method, String path, Map<String, String> headers,
+                        String body, int weight) {
+
+        Entry withDefaults() {
+            return new Entry(
+                    route != null ? route : (path != null ? path : "/"),
+                    method != null ? method.toUpperCase() : "GET",
+                    path != null ? path : "/",
+                    headers != null ? headers : Map.of(),
+                    body,
+                    weight > 0 ? weight : 1);
+        }
+    }
+}
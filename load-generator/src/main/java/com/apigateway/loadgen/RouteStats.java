@@ -0,0 +1,85 @@
+package com.apigateway.loadgen;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency histogram and outcome counters for one route
+ * Latencies are recorded in microseconds from the intended send time, so time a
+ * request spent waiting behind a slow one counts against the gateway
+ */
+public class RouteStats {
+
+    private static final long MAX_LATENCY_MICROS = TimeUnit.MINUTES.toMicros(2);
+
+    private final String route;
+    private final Histogram latency = new ConcurrentHistogram(MAX_LATENCY_MICROS, 3);
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder rateLimited = new LongAdder();
+    private final LongAdder otherErrors = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private final LongAdder skipped = new LongAdder();
+
+    public RouteStats(String route) {
+        this.route = route;
+    }
+
+    public void recordResponse(int status, long latencyNanos) {
+        recordLatency(latencyNanos);
+        completed.increment();
+        if (status == 429) {
+            rateLimited.increment();
+        } else if (status >= 400) {
+            otherErrors.increment();
+        }
+    }
+
+    public void recordFailure(long latencyNanos) {
+        recordLatency(latencyNanos);
+        failures.increment();
+    }
+
+    /**
+     * A send dropped at --max-in-flight; recorded with the client timeout as its latency,
+     * otherwise the slowest requests would vanish from the percentiles under overload
+     */
+    public void recordSkipped(long latencyNanos) {
+        recordLatency(latencyNanos);
+        skipped.increment();
+    }
+
+    private void recordLatency(long latencyNanos) {
+        latency.recordValue(Math.min(MAX_LATENCY_MICROS, TimeUnit.NANOSECONDS.toMicros(latencyNanos)));
+    }
+
+    public String getRoute() {
+        return route;
+    }
+
+    public Histogram getLatency() {
+        return latency;
+    }
+
+    public long getCompleted() {
+        return completed.sum();
+    }
+
+    public long getRateLimited() {
+        return rateLimited.sum();
+    }
+
+    public long getOtherErrors() {
+        return otherErrors.sum();
+    }
+
+    public long getFailures() {
+        return failures.sum();
+    }
+
+    public long getSkipped() {
+        return skipped.sum();
+    }
+}
@@ -0,0 +1,73 @@
+package com.apigateway.loadgen;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Local stub upstream so load tests run offline with predictable upstream latency
+ * Answers every path with 200 and a JSON body of fixed size after a fixed delay
+ */
+public class StubUpstreamServer {
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final long latencyMillis;
+    private final byte[] body;
+
+    public StubUpstreamServer(int port, Duration latency, int bodyBytes) throws IOException {
+        this.latencyMillis = latency.toMillis();
+        this.body = buildBody(bodyBytes);
+        this.server = HttpServer.create(new InetSocketAddress(port), 1024);
+        this.executor = Executors.newFixedThreadPool(256);
+        server.setExecutor(executor);
+        server.createContext("/", this::handle);
+    }
+
+    public void start() {
+        server.start();
+        System.out.printf("Stub upstream listening on port %d (latency %dms, body %d bytes)%n",
+                server.getAddress().getPort(), latencyMillis, body.length);
+    }
+
+    public void stop() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (InputStream in = exchange.getRequestBody()) {
+            in.transferTo(OutputStream.nullOutputStream());
+        }
+        if (latencyMillis > 0) {
+            try {
+                Thread.sleep(latencyMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    private static byte[] buildBody(int size) {
+        String prefix = "{\"stub\":\"";
+        String suffix = "\"}";
+        int padding = Math.max(0, size - prefix.length() - suffix.length());
+        char[] fill = new char[padding];
+        Arrays.fill(fill, 'x');
+        return (prefix + new String(fill) + suffix).getBytes(StandardCharsets.UTF_8);
+    }
+}
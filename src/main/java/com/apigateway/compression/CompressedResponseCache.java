@@ -0,0 +1,51 @@
+package com.apigateway.compression;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cache of compressed response bodies keyed by route, request target, ETag and encoding
+ * A strong ETag identifies one byte-exact representation of a resource, so its compressed
+ * form can be reused and hot payloads are compressed only once. ETags are only unique
+ * within a resource, hence the request target is part of the key.
+ */
+@Slf4j
+@Component
+public class CompressedResponseCache {
+
+    @Value("${gateway.compression.cache.max-bytes:67108864}")
+    private long maxBytes;
+
+    @Value("${gateway.compression.cache.ttl-seconds:600}")
+    private long ttlSeconds;
+
+    private Cache<String, byte[]> cache;
+
+    @PostConstruct
+    public void init() {
+        cache = CacheBuilder.newBuilder()
+                .maximumWeight(maxBytes)
+                .weigher((String key, byte[] body) -> body.length)
+                .expireAfterWrite(ttlSeconds, TimeUnit.SECONDS)
+                .build();
+        log.info("Compressed response cache: maxBytes={} ttlSeconds={}", maxBytes, ttlSeconds);
+    }
+
+    public static String key(String routeId, String requestTarget, String etag, String encoding, int level) {
+        return routeId + '|' + requestTarget + '|' + etag + '|' + encoding + '|' + level;
+    }
+
+    public byte[] get(String key) {
+        return cache.getIfPresent(key);
+    }
+
+    public void put(String key, byte[] compressedBody) {
+        cache.put(key, compressedBody);
+    }
+}
@@ -0,0 +1,121 @@
+package com.apigateway.compression;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * Streaming gzip or deflate encoder over a pooled Deflater
+ * Unlike GZIPOutputStream it does not allocate its own Deflater, so the native
+ * zlib state can be borrowed from and returned to {@link DeflaterPool}
+ */
+public class CompressingOutputStream extends OutputStream {
+
+    public static final String GZIP = "gzip";
+    public static final String DEFLATE = "deflate";
+
+    private static final byte[] GZIP_HEADER = {0x1f, (byte) 0x8b, Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, 0};
+
+    private final OutputStream out;
+    private final DeflaterPool pool;
+    private final int level;
+    private final boolean gzip;
+    private final CRC32 crc = new CRC32();
+    private final byte[] buffer = new byte[8192];
+    private Deflater deflater;
+
+    public CompressingOutputStream(OutputStream out, String encoding, int level, DeflaterPool pool) throws IOException {
+        this.out = out;
+        this.pool = pool;
+        this.level = level;
+        // gzip wraps raw deflate data in its own header and trailer; "deflate" is the zlib format
+        this.gzip = GZIP.equals(encoding);
+        this.deflater = pool.borrow(level, gzip);
+        if (gzip) {
+            out.write(GZIP_HEADER);
+        }
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        write(new byte[]{(byte) b}, 0, 1);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        if (deflater == null) {
+            throw new IOException("Compressed stream already finished");
+        }
+        if (gzip) {
+            crc.update(b, off, len);
+        }
+        deflater.setInput(b, off, len);
+        while (!deflater.needsInput()) {
+            drain(Deflater.NO_FLUSH);
+        }
+    }
+
+    /**
+     * Emit everything compressed so far, so streamed responses reach the client promptly
+     */
+    @Override
+    public void flush() throws IOException {
+        if (deflater != null) {
+            int written;
+            do {
+                written = drain(Deflater.SYNC_FLUSH);
+            } while (written == buffer.length);
+        }
+        out.flush();
+    }
+
+    /**
+     * Write the remaining compressed data and trailer, then return the deflater to the pool
+     */
+    public void finish() throws IOException {
+        if (deflater == null) {
+            return;
+        }
+        deflater.finish();
+        while (!deflater.finished()) {
+            drain(Deflater.NO_FLUSH);
+        }
+        if (gzip) {
+            writeIntLE((int) crc.getValue());
+            writeIntLE((int) deflater.getBytesRead());
+        }
+        release();
+    }
+
+    /**
+     * Return the deflater without finishing, e.g. when the response failed
+     */
+    public void release() {
+        if (deflater != null) {
+            pool.release(deflater, level, gzip);
+            deflater = null;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        finish();
+        out.close();
+    }
+
+    private int drain(int flushMode) throws IOException {
+        int written = deflater.deflate(buffer, 0, buffer.length, flushMode);
+        if (written > 0) {
+            out.write(buffer, 0, written);
+        }
+        return written;
+    }
+
+    private void writeIntLE(int value) throws IOException {
+        out.write(value & 0xff);
+        out.write((value >>> 8) & 0xff);
+        out.write((value >>> 16) & 0xff);
+        out.write((value >>> 24) & 0xff);
+    }
+}
@@ -0,0 +1,379 @@
+package com.apigateway.compression;
+
+import com.apigateway.router.CompressionSettings;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.charset.Charset;
+
+/**
+ * Response wrapper that compresses the body while it is written
+ * The first minSizeBytes are held back to decide whether compression pays off; after
+ * that the body streams through the encoder. Responses with a strong ETag are served
+ * from, or captured into, the compressed response cache, keyed by request target and ETag.
+ */
+public class CompressingResponseWrapper extends HttpServletResponseWrapper {
+
+    private enum State { BUFFERING, PASSTHROUGH, COMPRESSING, CACHED }
+
+    private final CompressionSettings settings;
+    private final String encoding;
+    private final String routeId;
+    private final String requestTarget;
+    private final DeflaterPool deflaterPool;
+    private final CompressedResponseCache cache;
+
+    private final ByteArrayOutputStream pending = new ByteArrayOutputStream();
+    private State state = State.BUFFERING;
+    private long declaredLength = -1;
+    private CompressingOutputStream compressor;
+    private CaptureOutputStream capture;
+    private String cacheKey;
+    private ServletOutputStream outputStream;
+    private PrintWriter writer;
+
+    /**
+     * @param requestTarget request URI including the query string; ETags are only unique per resource
+     */
+    public CompressingResponseWrapper(HttpServletResponse response, CompressionSettings settings, String encoding,
+                                      String routeId, String requestTarget,
+                                      DeflaterPool deflaterPool, CompressedResponseCache cache) {
+        super(response);
+        this.settings = settings;
+        this.encoding = encoding;
+        this.routeId = routeId;
+        this.requestTarget = requestTarget;
+        this.deflaterPool = deflaterPool;
+        this.cache = cache;
+    }
+
+    @Override
+    public ServletOutputStream getOutputStream() {
+        if (writer != null) {
+            throw new IllegalStateException("getWriter() has already been called");
+        }
+        if (outputStream == null) {
+            outputStream = new BodyOutputStream();
+        }
+        return outputStream;
+    }
+
+    @Override
+    public PrintWriter getWriter() {
+        if (writer == null) {
+            if (outputStream != null) {
+                throw new IllegalStateException("getOutputStream() has already been called");
+            }
+            outputStream = new BodyOutputStream();
+            writer = new PrintWriter(new OutputStreamWriter(outputStream, Charset.forName(getCharacterEncoding())));
+        }
+        return writer;
+    }
+
+    @Override
+    public void setContentLength(int len) {
+        setContentLengthLong(len);
+    }
+
+    @Override
+    public void setContentLengthLong(long len) {
+        // The length of the compressed body is unknown, so it is only passed on when not compressing
+        declaredLength = len;
+        if (state == State.PASSTHROUGH) {
+            super.setContentLengthLong(len);
+        }
+    }
+
+    @Override
+    public void setHeader(String name, String value) {
+        if ("Content-Length".equalsIgnoreCase(name)) {
+            setContentLengthLong(Long.parseLong(value));
+        } else {
+            super.setHeader(name, value);
+        }
+    }
+
+    @Override
+    public void addHeader(String name, String value) {
+        if ("Content-Length".equalsIgnoreCase(name)) {
+            setContentLengthLong(Long.parseLong(value));
+        } else {
+            super.addHeader(name, value);
+        }
+    }
+
+    @Override
+    public void setIntHeader(String name, int value) {
+        if ("Content-Length".equalsIgnoreCase(name)) {
+            setContentLengthLong(value);
+        } else {
+            super.setIntHeader(name, value);
+        }
+    }
+
+    @Override
+    public void flushBuffer() throws IOException {
+        if (writer != null) {
+            writer.flush();
+        }
+        if (state == State.BUFFERING) {
+            // Committing now: headers must be final, so decide with what is known so far
+            decide(declaredLength < 0 || declaredLength >= settings.getMinSizeBytes(), false);
+        }
+        if (state == State.COMPRESSING) {
+            compressor.flush();
+        }
+        super.flushBuffer();
+    }
+
+    @Override
+    public void resetBuffer() {
+        super.resetBuffer();
+        if (state == State.BUFFERING) {
+            pending.reset();
+        } else if (state == State.COMPRESSING || state == State.CACHED) {
+            // Content-Encoding is already set, so restart the encoded stream from its header
+            if (state == State.CACHED) {
+                super.setContentLengthLong(-1);
+            }
+            release();
+            capture = null;
+            cacheKey = null;
+            try {
+                startCompressor(getResponse().getOutputStream());
+            } catch (IOException e) {
+                throw new IllegalStateException("Failed to restart compressed stream", e);
+            }
+        }
+    }
+
+    @Override
+    public void reset() {
+        // Clears headers too, including Content-Encoding, so decide again from scratch
+        super.reset();
+        release();
+        compressor = null;
+        capture = null;
+        cacheKey = null;
+        pending.reset();
+        declaredLength = -1;
+        state = State.BUFFERING;
+    }
+
+    /**
+     * Complete the body after the filter chain returned
+     */
+    public void finish() throws IOException {
+        if (writer != null) {
+            writer.flush();
+        }
+        if (state == State.BUFFERING) {
+            decide(pending.size() >= settings.getMinSizeBytes(), true);
+        }
+        if (state == State.COMPRESSING) {
+            compressor.finish();
+            if (capture != null && !capture.isOverflowed()) {
+                cache.put(cacheKey, capture.toByteArray());
+            }
+        }
+    }
+
+    /**
+     * Return pooled resources when the request failed before finish()
+     */
+    public void release() {
+        if (compressor != null) {
+            compressor.release();
+        }
+    }
+
+    private void write(byte[] b, int off, int len) throws IOException {
+        if (state == State.BUFFERING) {
+            if (declaredLength >= 0) {
+                decide(declaredLength >= settings.getMinSizeBytes(), false);
+            } else {
+                pending.write(b, off, len);
+                if (pending.size() >= settings.getMinSizeBytes()) {
+                    decide(true, false);
+                }
+                return;
+            }
+        }
+
+        switch (state) {
+            case PASSTHROUGH -> getResponse().getOutputStream().write(b, off, len);
+            case COMPRESSING -> compressor.write(b, off, len);
+            default -> {
+                // CACHED: the compressed body is already known
+            }
+        }
+    }
+
+    /**
+     * Choose between compressing and passing the body through
+     * @param complete true if the whole body is buffered, so its length is known
+     */
+    private void decide(boolean largeEnough, boolean complete) throws IOException {
+        if (largeEnough && isCompressible()) {
+            startCompression();
+        } else {
+            state = State.PASSTHROUGH;
+            if (declaredLength >= 0) {
+                super.setContentLengthLong(declaredLength);
+            } else if (complete) {
+                super.setContentLengthLong(pending.size());
+            }
+        }
+
+        if (pending.size() > 0) {
+            byte[] buffered = pending.toByteArray();
+            pending.reset();
+            write(buffered, 0, buffered.length);
+        }
+    }
+
+    private boolean isCompressible() {
+        if (getStatus() != HttpServletResponse.SC_OK || getHeader("Content-Encoding") != null) {
+            return false;
+        }
+        String cacheControl = getHeader("Cache-Control");
+        if (cacheControl != null && cacheControl.contains("no-transform")) {
+            return false;
+        }
+        String contentType = getContentType();
+        return contentType != null && settings.getContentTypes().stream()
+                .anyMatch(allowed -> contentType.toLowerCase().startsWith(allowed));
+    }
+
+    private void startCompression() throws IOException {
+        super.setHeader("Content-Encoding", encoding);
+
+        String etag = getHeader("ETag");
+        if (etag != null && !etag.startsWith("W/")) {
+            // Compressed and identity bodies differ byte-wise, so only a weak validator still holds
+            super.setHeader("ETag", "W/" + etag);
+
+            // Weak ETags do not promise byte-identical bodies, so only strong ones are cached
+            if (settings.isCacheByEtag() && isSharedCacheable()) {
+                cacheKey = CompressedResponseCache.key(routeId, requestTarget, etag, encoding, settings.getLevel());
+                byte[] cached = cache.get(cacheKey);
+                if (cached != null) {
+                    state = State.CACHED;
+                    super.setContentLengthLong(cached.length);
+                    getResponse().getOutputStream().write(cached);
+                    return;
+                }
+            }
+        }
+
+        OutputStream target = getResponse().getOutputStream();
+        if (cacheKey != null) {
+            capture = new CaptureOutputStream(target, settings.getMaxCachedBytes());
+            target = capture;
+        }
+        startCompressor(target);
+    }
+
+    private void startCompressor(OutputStream target) throws IOException {
+        int level = Math.max(1, Math.min(9, settings.getLevel()));
+        compressor = new CompressingOutputStream(target, encoding, level, deflaterPool);
+        state = State.COMPRESSING;
+    }
+
+    private boolean isSharedCacheable() {
+        String cacheControl = getHeader("Cache-Control");
+        return cacheControl == null
+                || !(cacheControl.contains("no-store") || cacheControl.contains("private"));
+    }
+
+    private class BodyOutputStream extends ServletOutputStream {
+
+        @Override
+        public void write(int b) throws IOException {
+            CompressingResponseWrapper.this.write(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            CompressingResponseWrapper.this.write(b, off, len);
+        }
+
+        @Override
+        public void flush() throws IOException {
+            if (state == State.COMPRESSING) {
+                compressor.flush();
+            } else if (state == State.PASSTHROUGH) {
+                getResponse().getOutputStream().flush();
+            }
+        }
+
+        @Override
+        public boolean isReady() {
+            return delegate().isReady();
+        }
+
+        @Override
+        public void setWriteListener(WriteListener writeListener) {
+            delegate().setWriteListener(writeListener);
+        }
+
+        private ServletOutputStream delegate() {
+            try {
+                return getResponse().getOutputStream();
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+
+    /**
+     * Tees compressed bytes into memory for caching until the size limit is exceeded
+     */
+    private static class CaptureOutputStream extends OutputStream {
+        private final OutputStream out;
+        private final int limit;
+        private ByteArrayOutputStream copy = new ByteArrayOutputStream();
+
+        CaptureOutputStream(OutputStream out, int limit) {
+            this.out = out;
+            this.limit = limit;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            if (copy != null) {
+                if (copy.size() + len > limit) {
+                    copy = null;
+                } else {
+                    copy.write(b, off, len);
+                }
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            out.flush();
+        }
+
+        boolean isOverflowed() {
+            return copy == null;
+        }
+
+        byte[] toByteArray() {
+            return copy.toByteArray();
+        }
+    }
+}
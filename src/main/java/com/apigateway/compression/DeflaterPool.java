@@ -0,0 +1,55 @@
+package com.apigateway.compression;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PreDestroy;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.Deflater;
+
+/**
+ * Pool of Deflater instances keyed by level and wrapping
+ * A Deflater allocates native zlib buffers (~256KB); reusing them avoids that
+ * allocation and the native cleanup on every compressed response
+ */
+@Component
+public class DeflaterPool {
+
+    private final Map<Integer, BlockingQueue<Deflater>> pools = new ConcurrentHashMap<>();
+
+    @Value("${gateway.compression.deflater-pool-size:64}")
+    private int maxIdlePerLevel;
+
+    /**
+     * Borrow a deflater
+     * @param nowrap true for raw deflate data (gzip framing is written by the caller)
+     */
+    public Deflater borrow(int level, boolean nowrap) {
+        Deflater deflater = pool(level, nowrap).poll();
+        return deflater != null ? deflater : new Deflater(level, nowrap);
+    }
+
+    /**
+     * Return a deflater after its stream has finished; it is reset for the next user
+     */
+    public void release(Deflater deflater, int level, boolean nowrap) {
+        deflater.reset();
+        if (!pool(level, nowrap).offer(deflater)) {
+            deflater.end();
+        }
+    }
+
+    private BlockingQueue<Deflater> pool(int level, boolean nowrap) {
+        return pools.computeIfAbsent(level * 2 + (nowrap ? 1 : 0),
+                key -> new ArrayBlockingQueue<>(maxIdlePerLevel));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pools.values().forEach(pool -> pool.forEach(Deflater::end));
+        pools.clear();
+    }
+}
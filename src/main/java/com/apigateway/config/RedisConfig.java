@@ -1,26 +1,94 @@
 package com.apigateway.config;
 
+import com.apigateway.ratelimit.RedisKeyRouter;
+import com.apigateway.ratelimit.ShardedRedisKeyRouter;
+import com.apigateway.ratelimit.SingleRedisKeyRouter;
+import io.lettuce.core.cluster.ClusterClientOptions;
+import io.lettuce.core.cluster.ClusterTopologyRefreshOptions;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisClusterConfiguration;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceClientConfiguration;
 import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
 
+import java.time.Duration;
+import java.util.List;
+
 /**
  * Redis configuration for distributed rate limiting and caching
+ * Supports a single instance, Redis Cluster, or client-side sharding across
+ * independent instances (ratelimit.redis.mode = standalone | cluster | sharded)
  */
+@Slf4j
 @Configuration
 public class RedisConfig {
 
+    @Value("${ratelimit.redis.mode:standalone}")
+    private String mode;
+
+    @Value("${ratelimit.redis.nodes:localhost:6379}")
+    private List<String> nodes; // Cluster seed nodes or shard instances, host:port
+
+    @Value("${ratelimit.redis.migration-window-ms:3600000}")
+    private long migrationWindowMs; // Keep the previous shard ring this long after a topology change
+
     @Bean
     public RedisConnectionFactory redisConnectionFactory() {
-        return new LettuceConnectionFactory();
+        LettuceConnectionFactory factory;
+        if ("cluster".equalsIgnoreCase(mode)) {
+            // Refresh the slot map periodically and on MOVED/ASK so slot migrations are followed
+            ClusterTopologyRefreshOptions refreshOptions = ClusterTopologyRefreshOptions.builder()
+                    .enablePeriodicRefresh(Duration.ofSeconds(30))
+                    .enableAllAdaptiveRefreshTriggers()
+                    .build();
+            LettuceClientConfiguration clientConfig = LettuceClientConfiguration.builder()
+                    .clientOptions(ClusterClientOptions.builder()
+                            .topologyRefreshOptions(refreshOptions)
+                            .build())
+                    .build();
+            factory = new LettuceConnectionFactory(new RedisClusterConfiguration(nodes), clientConfig);
+            factory.setEagerInitialization(true);
+            log.info("Using Redis Cluster with seed nodes: {}", nodes);
+        } else {
+            // In sharded mode this connection (first shard) only serves non rate limit operations
+            factory = createStandaloneConnectionFactory(nodes.get(0));
+        }
+        return factory;
     }
 
     @Bean
     public RedisTemplate<String, Object> redisTemplate(RedisConnectionFactory connectionFactory) {
+        return createTemplate(connectionFactory);
+    }
+
+    @Bean
+    public RedisKeyRouter redisKeyRouter(RedisTemplate<String, Object> redisTemplate) {
+        if ("sharded".equalsIgnoreCase(mode)) {
+            return new ShardedRedisKeyRouter(nodes, migrationWindowMs);
+        }
+        return new SingleRedisKeyRouter(redisTemplate);
+    }
+
+    public static LettuceConnectionFactory createStandaloneConnectionFactory(String node) {
+        int separator = node.lastIndexOf(':');
+        String host = separator > 0 ? node.substring(0, separator) : node;
+        int port = separator > 0 ? Integer.parseInt(node.substring(separator + 1).trim()) : 6379;
+
+        LettuceConnectionFactory factory = new LettuceConnectionFactory(
+                new RedisStandaloneConfiguration(host.trim(), port));
+        // Connect during startup instead of on the first rate limit check
+        factory.setEagerInitialization(true);
+        return factory;
+    }
+
+    public static RedisTemplate<String, Object> createTemplate(RedisConnectionFactory connectionFactory) {
         RedisTemplate<String, Object> template = new RedisTemplate<>();
         template.setConnectionFactory(connectionFactory);
 
@@ -28,9 +96,13 @@ public class RedisConfig {
         template.setKeySerializer(new StringRedisSerializer());
         template.setHashKeySerializer(new StringRedisSerializer());
 
+        // Rate limit buckets are hashes of plain numbers written by Lua scripts
+        template.setHashValueSerializer(new StringRedisSerializer());
+
         // You can use GenericJackson2JsonRedisSerializer for values if you're storing objects
         template.setValueSerializer(new GenericJackson2JsonRedisSerializer());
 
+        template.afterPropertiesSet();
         return template;
     }
 }
@@ -1,5 +1,6 @@
 package com.apigateway.config;
 
+import com.apigateway.filter.FairQueuingInterceptor;
 import com.apigateway.filter.RateLimitingInterceptor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Configuration;
@@ -10,9 +11,12 @@ import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 public class WebMvcConfig implements WebMvcConfigurer {
 
     private final RateLimitingInterceptor rateLimitingInterceptor;
+    private final FairQueuingInterceptor fairQueuingInterceptor;
 
-    public WebMvcConfig(RateLimitingInterceptor rateLimitingInterceptor) {
+    public WebMvcConfig(RateLimitingInterceptor rateLimitingInterceptor,
+                        FairQueuingInterceptor fairQueuingInterceptor) {
         this.rateLimitingInterceptor = rateLimitingInterceptor;
+        this.fairQueuingInterceptor = fairQueuingInterceptor;
     }
 
     @Override
@@ -20,5 +24,9 @@ public class WebMvcConfig implements WebMvcConfigurer {
         // Register the interceptor for all paths
         registry.addInterceptor(rateLimitingInterceptor)
                 .addPathPatterns("/**");
+
+        // Scheduling runs after rate limiting so only admitted requests are queued
+        registry.addInterceptor(fairQueuingInterceptor)
+                .addPathPatterns("/**");
     }
 }
\ No newline at end of file
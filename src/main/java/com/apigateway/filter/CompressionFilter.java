@@ -0,0 +1,182 @@
+package com.apigateway.filter;
+
+import com.apigateway.compression.CompressedResponseCache;
+import com.apigateway.compression.CompressingOutputStream;
+import com.apigateway.compression.CompressingResponseWrapper;
+import com.apigateway.compression.DeflaterPool;
+import com.apigateway.router.CompressionSettings;
+import com.apigateway.router.Route;
+import com.apigateway.router.RouteManager;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.WebUtils;
+
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.Optional;
+
+/**
+ * Response compression filter driven by the matched route's compression policy
+ * Negotiates gzip or deflate from Accept-Encoding and streams the body through a
+ * pooled encoder; routes without a policy are passed through untouched.
+ * For async requests the body is completed on the final async dispatch, where the
+ * wrapper is found again in the response chain.
+ */
+@Slf4j
+@Component
+public class CompressionFilter extends OncePerRequestFilter {
+
+    private final RouteManager routeManager;
+    private final DeflaterPool deflaterPool;
+    private final CompressedResponseCache cache;
+
+    public CompressionFilter(RouteManager routeManager, DeflaterPool deflaterPool, CompressedResponseCache cache) {
+        this.routeManager = routeManager;
+        this.deflaterPool = deflaterPool;
+        this.cache = cache;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        CompressingResponseWrapper existing = WebUtils.getNativeResponse(response, CompressingResponseWrapper.class);
+        if (existing != null) {
+            // Async dispatch of a request that started compressing on its initial dispatch
+            filterAndComplete(request, response, chain, existing);
+            return;
+        }
+        if (isAsyncDispatch(request)) {
+            // Not compressed on the initial dispatch, so headers are already decided
+            chain.doFilter(request, response);
+            return;
+        }
+
+        Optional<Route> route = routeManager.findRoute(request.getRequestURI());
+        CompressionSettings settings = route.map(Route::getCompression)
+                .filter(CompressionSettings::isEnabled)
+                .orElse(null);
+
+        if (settings == null) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        // Caches in front of the gateway must keep compressed and identity variants apart
+        response.addHeader("Vary", "Accept-Encoding");
+
+        String encoding = "HEAD".equals(request.getMethod()) ? null : negotiate(request.getHeader("Accept-Encoding"));
+        if (encoding == null) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        String requestTarget = request.getQueryString() != null
+                ? request.getRequestURI() + '?' + request.getQueryString()
+                : request.getRequestURI();
+        CompressingResponseWrapper wrapper = new CompressingResponseWrapper(
+                response, settings, encoding, route.get().getId(), requestTarget, deflaterPool, cache);
+        filterAndComplete(request, wrapper, chain, wrapper);
+        if (isAsyncStarted(request)) {
+            // The body is still being written; it is finished on the async dispatch, and the
+            // deflater goes back to the pool even if the request errors or times out instead
+            request.getAsyncContext().addListener(new ReleaseOnCompletion(wrapper));
+        }
+    }
+
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        return false;
+    }
+
+    /**
+     * Run the chain and finish the compressed body, unless the request went async
+     */
+    private void filterAndComplete(HttpServletRequest request, HttpServletResponse response, FilterChain chain,
+                                   CompressingResponseWrapper wrapper) throws ServletException, IOException {
+        try {
+            chain.doFilter(request, response);
+        } catch (IOException | ServletException | RuntimeException e) {
+            wrapper.release();
+            throw e;
+        }
+        if (isAsyncStarted(request)) {
+            return;
+        }
+        try {
+            wrapper.finish();
+        } finally {
+            wrapper.release();
+        }
+    }
+
+    /**
+     * Pick gzip or deflate from an Accept-Encoding header, preferring gzip
+     * @return the encoding to use, or null if the client accepts neither
+     */
+    static String negotiate(String acceptEncoding) {
+        if (acceptEncoding == null || acceptEncoding.isBlank()) {
+            return null;
+        }
+        boolean gzip = false;
+        boolean deflate = false;
+        for (String part : acceptEncoding.split(",")) {
+            String[] tokens = part.trim().split(";");
+            String coding = tokens[0].trim().toLowerCase();
+            if (isRejected(tokens)) {
+                continue;
+            }
+            switch (coding) {
+                case CompressingOutputStream.GZIP, "*" -> gzip = true;
+                case CompressingOutputStream.DEFLATE -> deflate = true;
+                default -> {
+                }
+            }
+        }
+        if (gzip) {
+            return CompressingOutputStream.GZIP;
+        }
+        return deflate ? CompressingOutputStream.DEFLATE : null;
+    }
+
+    private record ReleaseOnCompletion(CompressingResponseWrapper wrapper) implements AsyncListener {
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            wrapper.release();
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            wrapper.release();
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            wrapper.release();
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+        }
+    }
+
+    private static boolean isRejected(String[] tokens) {
+        for (int i = 1; i < tokens.length; i++) {
+            String param = tokens[i].trim();
+            if (param.startsWith("q=")) {
+                try {
+                    return Double.parseDouble(param.substring(2)) <= 0;
+                } catch (NumberFormatException e) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+}
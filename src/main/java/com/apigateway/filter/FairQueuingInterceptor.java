@@ -0,0 +1,68 @@
+package com.apigateway.filter;
+
+import com.apigateway.router.Route;
+import com.apigateway.router.RouteManager;
+import com.apigateway.scheduling.FairQueueScheduler;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Scheduling stage after rate limiting
+ * Admitted requests wait for an execution slot in per-tenant fair queues and are
+ * shed with 503 when their route timeout would expire before they are served.
+ * Async requests keep their slot across dispatches and release it once, after the last one.
+ */
+@Slf4j
+@Component
+public class FairQueuingInterceptor implements HandlerInterceptor {
+
+    private static final String SLOT_ACQUIRED_AT_ATTRIBUTE = "fairQueueSlotAcquiredAt";
+
+    private final FairQueueScheduler scheduler;
+    private final RateLimitingInterceptor rateLimitingInterceptor;
+    private final RouteManager routeManager;
+
+    public FairQueuingInterceptor(FairQueueScheduler scheduler,
+                                  RateLimitingInterceptor rateLimitingInterceptor,
+                                  RouteManager routeManager) {
+        this.scheduler = scheduler;
+        this.rateLimitingInterceptor = rateLimitingInterceptor;
+        this.routeManager = routeManager;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler)
+            throws InterruptedException {
+        if (request.getAttribute(SLOT_ACQUIRED_AT_ATTRIBUTE) != null) {
+            // Async dispatch: the slot from the initial dispatch is held until afterCompletion
+            return true;
+        }
+
+        String tenant = rateLimitingInterceptor.extractLimitKey(request);
+        long timeoutMs = routeManager.findRoute(request.getRequestURI())
+                .map(Route::getTimeoutMs)
+                .orElse(0L);
+
+        if (!scheduler.acquire(tenant, timeoutMs)) {
+            response.setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+            response.setHeader("Retry-After", "1");
+            log.debug("Request shed by fair queue for tenant: {}", tenant);
+            return false;
+        }
+
+        request.setAttribute(SLOT_ACQUIRED_AT_ATTRIBUTE, System.nanoTime());
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        Object acquiredAt = request.getAttribute(SLOT_ACQUIRED_AT_ATTRIBUTE);
+        if (acquiredAt != null) {
+            scheduler.release(System.nanoTime() - (Long) acquiredAt);
+        }
+    }
+}
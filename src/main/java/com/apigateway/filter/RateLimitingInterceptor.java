@@ -1,6 +1,8 @@
 package com.apigateway.filter;
 
+import com.apigateway.ratelimit.HeavyHitterDetector;
 import com.apigateway.ratelimit.RateLimiter;
+import com.apigateway.startup.StartupWarmup;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
@@ -12,12 +14,17 @@ import jakarta.servlet.http.HttpServletResponse;
 
 /**
  * Rate limiting interceptor using configurable rate limiter (Token Bucket or Leaky Bucket)
+ * Keys below the heavy hitter threshold are limited in-process; only heavy keys
+ * are escalated to the shared Redis-backed limiter
  */
 @Slf4j
 @Component
 public class RateLimitingInterceptor implements HandlerInterceptor {
 
     private final RateLimiter rateLimiter;
+    private final RateLimiter localRateLimiter;
+    private final HeavyHitterDetector heavyHitterDetector;
+    private final StartupWarmup startupWarmup;
 
     @Value("${ratelimit.enabled:true}")
     private boolean rateLimitEnabled;
@@ -25,23 +32,34 @@ public class RateLimitingInterceptor implements HandlerInterceptor {
     @Value("${ratelimit.key-generator:ip}")
     private String keyGenerator; // ip, api-key, user-id
 
-    public RateLimitingInterceptor(@Qualifier("tokenBucketRateLimiter") RateLimiter rateLimiter) {
+    public RateLimitingInterceptor(@Qualifier("tokenBucketRateLimiter") RateLimiter rateLimiter,
+                                   @Qualifier("localTokenBucketRateLimiter") RateLimiter localRateLimiter,
+                                   HeavyHitterDetector heavyHitterDetector,
+                                   StartupWarmup startupWarmup) {
         this.rateLimiter = rateLimiter;
+        this.localRateLimiter = localRateLimiter;
+        this.heavyHitterDetector = heavyHitterDetector;
+        this.startupWarmup = startupWarmup;
     }
 
     @Override
     public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
-        if (!rateLimitEnabled) {
+        if (!rateLimitEnabled || startupWarmup.isWarmupRequest(request)) {
             return true;
         }
 
         String limitKey = extractLimitKey(request);
 
-        boolean allowed = rateLimiter.allowRequest(limitKey);
+        RateLimiter limiter = rateLimiter;
+        if (heavyHitterDetector.isEnabled() && !heavyHitterDetector.record(limitKey)) {
+            limiter = localRateLimiter;
+        }
+
+        boolean allowed = limiter.allowRequest(limitKey);
 
         // Add rate limit headers to response
-        long remaining = rateLimiter.getRemainingQuota(limitKey);
-        long resetTime = rateLimiter.getResetTime(limitKey);
+        long remaining = limiter.getRemainingQuota(limitKey);
+        long resetTime = limiter.getResetTime(limitKey);
 
         response.setHeader("X-RateLimit-Remaining", String.valueOf(remaining));
         response.setHeader("X-RateLimit-Reset", String.valueOf(resetTime));
@@ -56,7 +74,10 @@ public class RateLimitingInterceptor implements HandlerInterceptor {
         return true;
     }
 
-    private String extractLimitKey(HttpServletRequest request) {
+    /**
+     * Resolve the identity a request is limited (and scheduled) under
+     */
+    public String extractLimitKey(HttpServletRequest request) {
         return switch (keyGenerator.toLowerCase()) {
             case "api-key" -> request.getHeader("X-API-Key") != null ?
                     request.getHeader("X-API-Key") :
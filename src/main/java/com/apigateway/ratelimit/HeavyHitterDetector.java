@@ -0,0 +1,98 @@
+package com.apigateway.ratelimit;
+
+import com.apigateway.ratelimit.sketch.CountMinSketch;
+import com.apigateway.ratelimit.sketch.SpaceSavingTopK;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+import java.util.List;
+
+/**
+ * In-process streaming detection of heavy rate limit keys in fixed memory
+ * A Count-Min Sketch estimates how often each key was seen in the current window and a
+ * Space-Saving tracker keeps the top-K keys for inspection. Only keys whose estimate has
+ * reached half the threshold are offered to the tracker, so the long tail never takes its
+ * lock; its counts start from that point. Counts are halved at every window boundary so
+ * the estimate follows recent traffic.
+ */
+@Slf4j
+@Component
+public class HeavyHitterDetector {
+
+    @Value("${ratelimit.heavy-hitters.enabled:true}")
+    private boolean enabled;
+
+    @Value("${ratelimit.heavy-hitters.threshold:100}")
+    private long threshold; // Estimated requests per window before a key uses the Redis limiter
+
+    @Value("${ratelimit.heavy-hitters.window-ms:60000}")
+    private long windowMs;
+
+    @Value("${ratelimit.heavy-hitters.top-k:50}")
+    private int topK;
+
+    @Value("${ratelimit.heavy-hitters.sketch-width:4096}")
+    private int sketchWidth;
+
+    @Value("${ratelimit.heavy-hitters.sketch-depth:4}")
+    private int sketchDepth;
+
+    private CountMinSketch sketch;
+    private SpaceSavingTopK topKeys;
+    private volatile long windowStart;
+
+    @PostConstruct
+    public void init() {
+        sketch = new CountMinSketch(sketchWidth, sketchDepth);
+        topKeys = new SpaceSavingTopK(topK);
+        windowStart = System.currentTimeMillis();
+        log.info("Heavy hitter detection enabled={} threshold={} per {}ms, sketch {}x{}",
+                enabled, threshold, windowMs, sketchWidth, sketchDepth);
+    }
+
+    /**
+     * Count a request for a key
+     * @return true if the key is a heavy hitter and must be limited against shared Redis state
+     */
+    public boolean record(String key) {
+        rotateIfWindowElapsed();
+        long estimate = sketch.add(key);
+        if (estimate >= threshold / 2) {
+            topKeys.offer(key);
+        }
+        return estimate >= threshold;
+    }
+
+    /**
+     * Current top keys with their estimated counts
+     */
+    public List<SpaceSavingTopK.HeavyHitter> getHeavyHitters() {
+        rotateIfWindowElapsed();
+        return topKeys.top();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public long getThreshold() {
+        return threshold;
+    }
+
+    private void rotateIfWindowElapsed() {
+        long now = System.currentTimeMillis();
+        if (now - windowStart < windowMs) {
+            return;
+        }
+        synchronized (this) {
+            if (now - windowStart < windowMs) {
+                return;
+            }
+            sketch.decay();
+            topKeys.decay();
+            windowStart = now;
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.apigateway.ratelimit;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Actuator endpoint listing the live heavy hitters among rate limit keys
+ * GET /actuator/heavyhitters; keys may be API keys, so expose it only on a protected port
+ */
+@Component
+@Endpoint(id = "heavyhitters")
+public class HeavyHittersEndpoint {
+
+    private final HeavyHitterDetector heavyHitterDetector;
+
+    public HeavyHittersEndpoint(HeavyHitterDetector heavyHitterDetector) {
+        this.heavyHitterDetector = heavyHitterDetector;
+    }
+
+    @ReadOperation
+    public Map<String, Object> heavyHitters() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("enabled", heavyHitterDetector.isEnabled());
+        result.put("threshold", heavyHitterDetector.getThreshold());
+        result.put("topKeys", heavyHitterDetector.getHeavyHitters());
+        return result;
+    }
+}
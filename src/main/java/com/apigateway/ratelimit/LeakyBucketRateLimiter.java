@@ -2,22 +2,30 @@ package com.apigateway.ratelimit;
 
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.RedisCallback;
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.data.redis.core.script.RedisScript;
 import org.springframework.stereotype.Component;
 
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.List;
 
 /**
  * Leaky Bucket Rate Limiter with distributed state management using Redis
- * Provides smooth request rate limiting by "leaking" requests at a constant rate
+ * Provides smooth request rate limiting by "leaking" requests at a constant rate.
+ * Time is read from Redis (TIME) and the water level is kept as a fixed-point integer
+ * so frequent calls still leak their fractional share instead of rounding to zero.
  */
 @Slf4j
 @Component
 public class LeakyBucketRateLimiter implements RateLimiter {
 
-    private final RedisTemplate<String, Object> redisTemplate;
+    // Versioned prefix: nodes running the previous ms-based script read the old hash layout
+    // positionally, so the fixed-point state must never share a key with it during a rolling deploy
+    private static final String KEY_PREFIX = "lb2_";
+
+    private final RedisKeyRouter redisKeyRouter;
     private final RedisScript<Boolean> leakyBucketScript;
 
     @Value("${ratelimit.leaky-bucket.capacity:1000}")
@@ -26,38 +34,39 @@ public class LeakyBucketRateLimiter implements RateLimiter {
     @Value("${ratelimit.leaky-bucket.leak-rate:100}")
     private long leakRate; // requests per second
 
-    public LeakyBucketRateLimiter(RedisTemplate<String, Object> redisTemplate) {
-        this.redisTemplate = redisTemplate;
+    public LeakyBucketRateLimiter(RedisKeyRouter redisKeyRouter) {
+        this.redisKeyRouter = redisKeyRouter;
         // Lua script for atomic leaky bucket operation
         this.leakyBucketScript = RedisScript.of(
                 "local key = KEYS[1]\n" +
-                "local capacity = tonumber(ARGV[1])\n" +
+                "local scale = tonumber(ARGV[3])\n" +
+                "local capacity = tonumber(ARGV[1]) * scale\n" +
                 "local leak_rate = tonumber(ARGV[2])\n" +
-                "local now = tonumber(ARGV[3])\n" +
                 "\n" +
-                "local bucket = redis.call('HGETALL', key)\n" +
-                "local water_level = 0\n" +
-                "local last_leak_time = now\n" +
+                "-- Replicate effects rather than the script so TIME is not re-evaluated on replicas (Redis < 5)\n" +
+                "redis.replicate_commands()\n" +
+                "local time = redis.call('TIME')\n" +
+                "local now = tonumber(time[1]) * 1000000 + tonumber(time[2])\n" +
                 "\n" +
-                "if #bucket > 0 then\n" +
-                "  water_level = tonumber(bucket[2]) or 0\n" +
-                "  last_leak_time = tonumber(bucket[4]) or now\n" +
-                "end\n" +
+                "local bucket = redis.call('HMGET', key, 'water_level_fp', 'last_leak_us')\n" +
+                "local water_level = tonumber(bucket[1]) or 0\n" +
+                "local last_leak_time = tonumber(bucket[2]) or now\n" +
                 "\n" +
-                "local time_passed = (now - last_leak_time) / 1000\n" +
-                "local water_leaked = math.floor(time_passed * leak_rate)\n" +
+                "-- Scaled water leaked per microsecond = leak_rate * scale / 1000000\n" +
+                "local time_passed = math.max(0, now - last_leak_time)\n" +
+                "local water_leaked = math.floor(time_passed * leak_rate * scale / 1000000)\n" +
                 "water_level = math.max(0, water_level - water_leaked)\n" +
                 "\n" +
+                "local allowed = 0\n" +
                 "if water_level < capacity then\n" +
-                "  water_level = water_level + 1\n" +
-                "  redis.call('HSET', key, 'water_level', water_level, 'last_leak', now)\n" +
-                "  redis.call('EXPIRE', key, 3600)\n" +
-                "  return 1\n" +
-                "else\n" +
-                "  redis.call('HSET', key, 'water_level', water_level, 'last_leak', now)\n" +
-                "  redis.call('EXPIRE', key, 3600)\n" +
-                "  return 0\n" +
-                "end\n",
+                "  water_level = water_level + scale\n" +
+                "  allowed = 1\n" +
+                "end\n" +
+                "\n" +
+                "-- Format as integers; number arguments may otherwise be written in exponent notation\n" +
+                "redis.call('HSET', key, 'water_level_fp', string.format('%d', water_level), 'last_leak_us', string.format('%d', now))\n" +
+                "redis.call('EXPIRE', key, 3600)\n" +
+                "return allowed\n",
                 Boolean.class
         );
     }
@@ -65,8 +74,7 @@ public class LeakyBucketRateLimiter implements RateLimiter {
     @Override
     public boolean allowRequest(String key) {
         try {
-            String redisKey = "lb_" + key;
-            Long now = System.currentTimeMillis();
+            String redisKey = RedisKeyRouter.hashTagged(KEY_PREFIX, key);
 
             List<String> keys = new ArrayList<>();
             keys.add(redisKey);
@@ -74,9 +82,9 @@ public class LeakyBucketRateLimiter implements RateLimiter {
             List<Object> args = new ArrayList<>();
             args.add(capacity);
             args.add(leakRate);
-            args.add(now);
+            args.add(TokenBucketRateLimiter.FIXED_POINT_SCALE);
 
-            Boolean allowed = redisTemplate.execute(
+            Boolean allowed = redisKeyRouter.templateFor(redisKey).execute(
                     leakyBucketScript,
                     keys,
                     args.toArray()
@@ -90,13 +98,25 @@ public class LeakyBucketRateLimiter implements RateLimiter {
         }
     }
 
+    @Override
+    public void preload() {
+        // SCRIPT LOAD up front so the first EVALSHA does not miss and resend the script body
+        byte[] script = leakyBucketScript.getScriptAsString().getBytes(StandardCharsets.UTF_8);
+        for (RedisTemplate<String, Object> redisTemplate : redisKeyRouter.allTemplates()) {
+            String sha = redisTemplate.execute((RedisCallback<String>) connection ->
+                    connection.scriptingCommands().scriptLoad(script));
+            log.info("Preloaded leaky bucket script: {}", sha);
+        }
+    }
+
     @Override
     public long getRemainingQuota(String key) {
         try {
-            String redisKey = "lb_" + key;
-            Object waterLevel = redisTemplate.opsForHash().get(redisKey, "water_level");
+            String redisKey = RedisKeyRouter.hashTagged(KEY_PREFIX, key);
+            Object waterLevel = redisKeyRouter.templateFor(redisKey).opsForHash().get(redisKey, "water_level_fp");
             long current = waterLevel != null ? Long.parseLong(waterLevel.toString()) : 0;
-            return capacity - current;
+            long scale = TokenBucketRateLimiter.FIXED_POINT_SCALE;
+            return Math.max(0, capacity - (current + scale - 1) / scale);
         } catch (Exception e) {
             log.warn("Error getting remaining quota for key: {}", key, e);
             return capacity;
@@ -106,8 +126,8 @@ public class LeakyBucketRateLimiter implements RateLimiter {
     @Override
     public long getResetTime(String key) {
         try {
-            String redisKey = "lb_" + key;
-            Long ttl = redisTemplate.getExpire(redisKey);
+            String redisKey = RedisKeyRouter.hashTagged(KEY_PREFIX, key);
+            Long ttl = redisKeyRouter.templateFor(redisKey).getExpire(redisKey);
             return ttl != null && ttl > 0 ? ttl * 1000 : 0;
         } catch (Exception e) {
             log.warn("Error getting reset time for key: {}", key, e);
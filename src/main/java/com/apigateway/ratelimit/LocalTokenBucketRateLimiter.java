@@ -0,0 +1,105 @@
+package com.apigateway.ratelimit;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * In-memory Token Bucket Rate Limiter for low-volume keys
+ * Uses the same capacity and refill settings as the Redis token bucket, but keeps state
+ * per gateway instance in a size-bounded cache, so the long tail of one-off clients
+ * costs neither Redis memory nor a script call
+ */
+@Slf4j
+@Component
+public class LocalTokenBucketRateLimiter implements RateLimiter {
+
+    @Value("${ratelimit.token-bucket.capacity:1000}")
+    private long capacity;
+
+    @Value("${ratelimit.token-bucket.refill-rate:100}")
+    private long refillRate;
+
+    @Value("${ratelimit.token-bucket.refill-interval-ms:1000}")
+    private long refillIntervalMs;
+
+    @Value("${ratelimit.local.max-keys:100000}")
+    private long maxKeys;
+
+    private Cache<String, Bucket> buckets;
+
+    @PostConstruct
+    public void init() {
+        buckets = CacheBuilder.newBuilder()
+                .maximumSize(maxKeys)
+                .expireAfterAccess(1, TimeUnit.HOURS)
+                .build();
+    }
+
+    @Override
+    public boolean allowRequest(String key) {
+        try {
+            return bucket(key).tryConsume();
+        } catch (ExecutionException e) {
+            log.error("Error in local token bucket rate limiting for key: {}", key, e);
+            // Fail open - allow request if the bucket cannot be created
+            return true;
+        }
+    }
+
+    @Override
+    public long getRemainingQuota(String key) {
+        Bucket bucket = buckets.getIfPresent(key);
+        return bucket != null ? bucket.available() : capacity;
+    }
+
+    @Override
+    public long getResetTime(String key) {
+        Bucket bucket = buckets.getIfPresent(key);
+        return bucket != null ? bucket.millisUntilFull() : 0;
+    }
+
+    private Bucket bucket(String key) throws ExecutionException {
+        return buckets.get(key, Bucket::new);
+    }
+
+    /**
+     * Continuously refilled bucket; tokens are fractional so refill is smooth
+     */
+    private class Bucket {
+        private double tokens = capacity;
+        private long lastRefillNanos = System.nanoTime();
+
+        synchronized boolean tryConsume() {
+            refill();
+            if (tokens >= 1) {
+                tokens -= 1;
+                return true;
+            }
+            return false;
+        }
+
+        synchronized long available() {
+            refill();
+            return (long) tokens;
+        }
+
+        synchronized long millisUntilFull() {
+            refill();
+            return (long) Math.ceil((capacity - tokens) * refillIntervalMs / refillRate);
+        }
+
+        private void refill() {
+            long now = System.nanoTime();
+            double tokensPerNano = (double) refillRate / TimeUnit.MILLISECONDS.toNanos(refillIntervalMs);
+            tokens = Math.min(capacity, tokens + (now - lastRefillNanos) * tokensPerNano);
+            lastRefillNanos = now;
+        }
+    }
+}
@@ -24,4 +24,11 @@ public interface RateLimiter {
      * @return milliseconds until reset, 0 if no reset scheduled
      */
     long getResetTime(String key);
+
+    /**
+     * Prepare server-side state (e.g. load Lua scripts) before the first request
+     * Called once during startup warmup; implementations without such state do nothing
+     */
+    default void preload() {
+    }
 }
@@ -0,0 +1,46 @@
+package com.apigateway.ratelimit;
+
+import org.springframework.data.redis.core.RedisTemplate;
+
+import java.util.Collection;
+
+/**
+ * Routes rate limit keys to the Redis instance that owns them
+ * Standalone and Redis Cluster deployments use a single template (Lettuce follows
+ * cluster redirects itself); client-side sharding picks a template per key.
+ */
+public interface RedisKeyRouter {
+
+    /**
+     * Get the template for the instance owning a key
+     * @param redisKey full Redis key, hash-tagged via {@link #hashTagged(String, String)}
+     */
+    RedisTemplate<String, Object> templateFor(String redisKey);
+
+    /**
+     * Get templates for every instance, e.g. to load scripts everywhere
+     */
+    Collection<RedisTemplate<String, Object>> allTemplates();
+
+    /**
+     * Build a key whose hash tag is the client identity, so every key of one client
+     * maps to the same cluster slot or shard and multi-key scripts stay on one node
+     */
+    static String hashTagged(String prefix, String key) {
+        return prefix + "{" + key + "}";
+    }
+
+    /**
+     * Extract the part of a key that is hashed, following Redis Cluster hash tag rules
+     */
+    static String hashSlotInput(String redisKey) {
+        int open = redisKey.indexOf('{');
+        if (open >= 0) {
+            int close = redisKey.indexOf('}', open + 1);
+            if (close > open + 1) {
+                return redisKey.substring(open + 1, close);
+            }
+        }
+        return redisKey;
+    }
+}
@@ -0,0 +1,47 @@
+package com.apigateway.ratelimit;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Actuator endpoint for the Redis shard topology of rate limit state
+ * GET /actuator/redisshards shows the ring, POST {"nodes": "host1:6379,host2:6379"} changes it
+ * The change applies to this instance only and must be posted to every gateway instance
+ */
+@Component
+@Endpoint(id = "redisshards")
+public class RedisShardsEndpoint {
+
+    private final RedisKeyRouter redisKeyRouter;
+
+    public RedisShardsEndpoint(RedisKeyRouter redisKeyRouter) {
+        this.redisKeyRouter = redisKeyRouter;
+    }
+
+    @ReadOperation
+    public Map<String, Object> topology() {
+        if (redisKeyRouter instanceof ShardedRedisKeyRouter sharded) {
+            return sharded.getTopology();
+        }
+        return Map.of("mode", "single");
+    }
+
+    @WriteOperation
+    public Map<String, Object> updateNodes(String nodes) {
+        if (!(redisKeyRouter instanceof ShardedRedisKeyRouter sharded)) {
+            throw new IllegalStateException("Shard topology can only be changed with ratelimit.redis.mode=sharded");
+        }
+        List<String> nodeList = Arrays.stream(nodes.split(","))
+                .map(String::trim)
+                .filter(node -> !node.isEmpty())
+                .toList();
+        sharded.updateShards(nodeList);
+        return sharded.getTopology();
+    }
+}
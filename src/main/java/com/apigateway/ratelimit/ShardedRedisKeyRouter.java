@@ -0,0 +1,212 @@
+package com.apigateway.ratelimit;
+
+import com.apigateway.config.RedisConfig;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hashing;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Client-side sharding of rate limit state across independent Redis instances
+ * Keys are placed on a consistent hash ring by their hash tag, so adding or removing
+ * an instance only moves the keys between neighbouring ring segments. After a topology
+ * change, keys are migrated lazily: the first access through the new owner copies the
+ * bucket from the previous owner with DUMP/RESTORE, which never overwrites a bucket that
+ * already exists on the new owner. The source bucket is left to expire rather than deleted,
+ * since gateways not yet switched to the new topology keep using it. The previous ring is
+ * kept for the migration window (by default the bucket TTL), after which any unmigrated
+ * bucket has expired anyway. The topology must be changed on every gateway instance; until
+ * then a moved client may be admitted by both owners.
+ */
+@Slf4j
+public class ShardedRedisKeyRouter implements RedisKeyRouter {
+
+    private static final int VIRTUAL_NODES_PER_SHARD = 128;
+    private static final HashFunction HASH = Hashing.murmur3_32_fixed();
+
+    private final Map<String, Shard> shards = new ConcurrentHashMap<>();
+    private final Cache<String, Boolean> migratedKeys = CacheBuilder.newBuilder()
+            .maximumSize(100_000)
+            .build();
+    private final long migrationWindowMs;
+
+    private volatile Ring current;
+    private volatile Ring previous;
+    private volatile long migrationDeadline;
+
+    public ShardedRedisKeyRouter(List<String> nodes, long migrationWindowMs) {
+        this.migrationWindowMs = migrationWindowMs;
+        nodes.forEach(this::openShard);
+        this.current = new Ring(nodes);
+        log.info("Sharded rate limit state across {} Redis instances: {}", nodes.size(), nodes);
+    }
+
+    @Override
+    public RedisTemplate<String, Object> templateFor(String redisKey) {
+        String hashInput = RedisKeyRouter.hashSlotInput(redisKey);
+        String owner = current.ownerOf(hashInput);
+
+        Ring prev = previous;
+        if (prev != null) {
+            if (System.currentTimeMillis() >= migrationDeadline) {
+                finishMigration();
+            } else {
+                String previousOwner = prev.ownerOf(hashInput);
+                if (!previousOwner.equals(owner)) {
+                    migrateKey(redisKey, shards.get(previousOwner), shards.get(owner));
+                }
+            }
+        }
+
+        return shards.get(owner).template();
+    }
+
+    @Override
+    public Collection<RedisTemplate<String, Object>> allTemplates() {
+        return current.nodes().stream()
+                .map(node -> shards.get(node).template())
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Current shard nodes and, while a migration is running, the previous ones
+     */
+    public Map<String, Object> getTopology() {
+        Map<String, Object> topology = new LinkedHashMap<>();
+        topology.put("nodes", current.nodes());
+        Ring prev = previous;
+        if (prev != null) {
+            topology.put("previousNodes", prev.nodes());
+            topology.put("migrationDeadline", migrationDeadline);
+        }
+        return topology;
+    }
+
+    /**
+     * Switch to a new set of Redis instances and start migrating moved keys
+     */
+    public synchronized void updateShards(List<String> nodes) {
+        Ring next = new Ring(nodes); // Validates the node list before any state changes
+        if (previous != null) {
+            log.warn("Topology changed again before the previous migration finished; " +
+                    "buckets not yet moved from {} are dropped", previous.nodes());
+            finishMigration();
+        }
+
+        nodes.forEach(this::openShard);
+        migratedKeys.invalidateAll();
+        migrationDeadline = System.currentTimeMillis() + migrationWindowMs;
+        previous = current;
+        current = next;
+        log.info("Redis shard topology changed from {} to {}", previous.nodes(), nodes);
+    }
+
+    private synchronized void finishMigration() {
+        if (previous == null) {
+            return;
+        }
+        Set<String> retired = new HashSet<>(previous.nodes());
+        retired.removeAll(current.nodes());
+        previous = null;
+        retired.forEach(node -> {
+            Shard shard = shards.remove(node);
+            if (shard != null) {
+                shard.connectionFactory().destroy();
+            }
+        });
+        log.info("Redis shard migration finished, retired: {}", retired);
+    }
+
+    private void migrateKey(String redisKey, Shard source, Shard target) {
+        if (migratedKeys.getIfPresent(redisKey) != null) {
+            return;
+        }
+        try {
+            byte[] bucket = source.template().dump(redisKey);
+            if (bucket != null) {
+                Long ttlMs = source.template().getExpire(redisKey, TimeUnit.MILLISECONDS);
+                // RESTORE without REPLACE fails if a concurrent request already created the
+                // bucket on the new owner, so its consumed tokens are never rolled back
+                target.template().restore(redisKey, bucket, ttlMs != null && ttlMs > 0 ? ttlMs : 0,
+                        TimeUnit.MILLISECONDS);
+                log.debug("Migrated rate limit key {} to new shard", redisKey);
+            }
+            migratedKeys.put(redisKey, Boolean.TRUE);
+        } catch (Exception e) {
+            if (isBusyKey(e)) {
+                migratedKeys.put(redisKey, Boolean.TRUE);
+                return;
+            }
+            // Continue on the new owner with a fresh bucket rather than failing the request
+            log.warn("Failed to migrate rate limit key: {}", redisKey, e);
+        }
+    }
+
+    private static boolean isBusyKey(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause.getMessage() != null && cause.getMessage().contains("BUSYKEY")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void openShard(String node) {
+        shards.computeIfAbsent(node, n -> {
+            LettuceConnectionFactory factory = RedisConfig.createStandaloneConnectionFactory(n);
+            factory.afterPropertiesSet();
+            factory.start();
+            return new Shard(factory, RedisConfig.createTemplate(factory));
+        });
+    }
+
+    public void close() {
+        shards.values().forEach(shard -> shard.connectionFactory().destroy());
+        shards.clear();
+    }
+
+    private record Shard(LettuceConnectionFactory connectionFactory, RedisTemplate<String, Object> template) {
+    }
+
+    /**
+     * Consistent hash ring with virtual nodes
+     */
+    private static class Ring {
+        private final List<String> nodes;
+        private final TreeMap<Integer, String> ring = new TreeMap<>();
+
+        Ring(List<String> nodes) {
+            if (nodes.isEmpty()) {
+                throw new IllegalArgumentException("At least one Redis shard is required");
+            }
+            this.nodes = List.copyOf(nodes);
+            for (String node : nodes) {
+                for (int i = 0; i < VIRTUAL_NODES_PER_SHARD; i++) {
+                    ring.put(hash(node + "#" + i), node);
+                }
+            }
+        }
+
+        String ownerOf(String hashInput) {
+            Map.Entry<Integer, String> entry = ring.ceilingEntry(hash(hashInput));
+            return entry != null ? entry.getValue() : ring.firstEntry().getValue();
+        }
+
+        List<String> nodes() {
+            return nodes;
+        }
+
+        private static int hash(String value) {
+            return HASH.hashString(value, StandardCharsets.UTF_8).asInt();
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.apigateway.ratelimit;
+
+import org.springframework.data.redis.core.RedisTemplate;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Router for a single standalone Redis or a Redis Cluster connection
+ */
+public class SingleRedisKeyRouter implements RedisKeyRouter {
+
+    private final RedisTemplate<String, Object> redisTemplate;
+
+    public SingleRedisKeyRouter(RedisTemplate<String, Object> redisTemplate) {
+        this.redisTemplate = redisTemplate;
+    }
+
+    @Override
+    public RedisTemplate<String, Object> templateFor(String redisKey) {
+        return redisTemplate;
+    }
+
+    @Override
+    public Collection<RedisTemplate<String, Object>> allTemplates() {
+        return List.of(redisTemplate);
+    }
+}
@@ -3,23 +3,33 @@ package com.apigateway.ratelimit;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Primary;
+import org.springframework.data.redis.core.RedisCallback;
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.data.redis.core.script.RedisScript;
 import org.springframework.stereotype.Component;
 
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.List;
 
 /**
  * Token Bucket Rate Limiter with distributed state management using Redis
- * Handles clock skew by using server-side Lua scripts for atomic operations
+ * Handles clock skew by reading time from Redis (TIME) inside the Lua script, so all
+ * gateway nodes share one clock. Tokens refill continuously and are stored as
+ * fixed-point integers (millionths of a token) to avoid bursts at interval boundaries.
  */
 @Slf4j
 @Component
 @Primary
 public class TokenBucketRateLimiter implements RateLimiter {
 
-    private final RedisTemplate<String, Object> redisTemplate;
+    // Versioned prefix: nodes running the previous ms-based script read the old hash layout
+    // positionally, so the fixed-point state must never share a key with it during a rolling deploy
+    private static final String KEY_PREFIX = "tb2_";
+
+    static final long FIXED_POINT_SCALE = 1_000_000L;
+
+    private final RedisKeyRouter redisKeyRouter;
     private final RedisScript<Boolean> tokenBucketScript;
 
     @Value("${ratelimit.token-bucket.capacity:1000}")
@@ -31,40 +41,46 @@ public class TokenBucketRateLimiter implements RateLimiter {
     @Value("${ratelimit.token-bucket.refill-interval-ms:1000}")
     private long refillIntervalMs;
 
-    public TokenBucketRateLimiter(RedisTemplate<String, Object> redisTemplate) {
-        this.redisTemplate = redisTemplate;
+    public TokenBucketRateLimiter(RedisKeyRouter redisKeyRouter) {
+        this.redisKeyRouter = redisKeyRouter;
         // Lua script for atomic token bucket operation
-        // Prevents race conditions and handles clock skew
+        // Prevents race conditions; time comes from the Redis server, not the calling node
         this.tokenBucketScript = RedisScript.of(
                 "local key = KEYS[1]\n" +
-                "local capacity = tonumber(ARGV[1])\n" +
+                "local scale = tonumber(ARGV[4])\n" +
+                "local capacity = tonumber(ARGV[1]) * scale\n" +
                 "local refill_rate = tonumber(ARGV[2])\n" +
                 "local refill_interval = tonumber(ARGV[3])\n" +
-                "local now = tonumber(ARGV[4])\n" +
                 "\n" +
-                "local bucket = redis.call('HGETALL', key)\n" +
-                "local tokens = capacity\n" +
-                "local last_refill_time = now\n" +
+                "-- Replicate effects rather than the script so TIME is not re-evaluated on replicas (Redis < 5)\n" +
+                "redis.replicate_commands()\n" +
+                "local time = redis.call('TIME')\n" +
+                "local now = tonumber(time[1]) * 1000000 + tonumber(time[2])\n" +
+                "\n" +
+                "local bucket = redis.call('HMGET', key, 'tokens_fp', 'last_refill_us')\n" +
+                "local tokens = tonumber(bucket[1]) or capacity\n" +
+                "local last_refill_time = tonumber(bucket[2]) or now\n" +
                 "\n" +
-                "if #bucket > 0 then\n" +
-                "  tokens = tonumber(bucket[2]) or capacity\n" +
-                "  last_refill_time = tonumber(bucket[4]) or now\n" +
+                "-- Continuous refill: scaled tokens per microsecond = refill_rate * scale / (refill_interval * 1000)\n" +
+                "local time_passed = math.max(0, now - last_refill_time)\n" +
+                "local refill_numerator = time_passed * refill_rate * scale\n" +
+                "local refill_denominator = refill_interval * 1000\n" +
+                "if refill_numerator >= (capacity - tokens) * refill_denominator then\n" +
+                "  tokens = capacity\n" +
+                "else\n" +
+                "  tokens = tokens + math.floor(refill_numerator / refill_denominator)\n" +
                 "end\n" +
                 "\n" +
-                "local time_passed = now - last_refill_time\n" +
-                "local tokens_to_add = math.floor(time_passed / refill_interval) * refill_rate\n" +
-                "tokens = math.min(capacity, tokens + tokens_to_add)\n" +
+                "local allowed = 0\n" +
+                "if tokens >= scale then\n" +
+                "  tokens = tokens - scale\n" +
+                "  allowed = 1\n" +
+                "end\n" +
                 "\n" +
-                "if tokens >= 1 then\n" +
-                "  tokens = tokens - 1\n" +
-                "  redis.call('HSET', key, 'tokens', tokens, 'last_refill', now)\n" +
-                "  redis.call('EXPIRE', key, 3600)\n" +
-                "  return {1, tokens}\n" +
-                "else\n" +
-                "  redis.call('HSET', key, 'tokens', tokens, 'last_refill', now)\n" +
-                "  redis.call('EXPIRE', key, 3600)\n" +
-                "  return {0, 0}\n" +
-                "end\n",
+                "-- Format as integers; number arguments may otherwise be written in exponent notation\n" +
+                "redis.call('HSET', key, 'tokens_fp', string.format('%d', tokens), 'last_refill_us', string.format('%d', now))\n" +
+                "redis.call('EXPIRE', key, 3600)\n" +
+                "return allowed\n",
                 Boolean.class
         );
     }
@@ -72,8 +88,7 @@ public class TokenBucketRateLimiter implements RateLimiter {
     @Override
     public boolean allowRequest(String key) {
         try {
-            String redisKey = "tb_" + key;
-            Long now = System.currentTimeMillis();
+            String redisKey = RedisKeyRouter.hashTagged(KEY_PREFIX, key);
 
             List<String> keys = new ArrayList<>();
             keys.add(redisKey);
@@ -82,9 +97,9 @@ public class TokenBucketRateLimiter implements RateLimiter {
             args.add(capacity);
             args.add(refillRate);
             args.add(refillIntervalMs);
-            args.add(now);
+            args.add(FIXED_POINT_SCALE);
 
-            Boolean allowed = redisTemplate.execute(
+            Boolean allowed = redisKeyRouter.templateFor(redisKey).execute(
                     tokenBucketScript,
                     keys,
                     args.toArray()
@@ -98,12 +113,23 @@ public class TokenBucketRateLimiter implements RateLimiter {
         }
     }
 
+    @Override
+    public void preload() {
+        // SCRIPT LOAD up front so the first EVALSHA does not miss and resend the script body
+        byte[] script = tokenBucketScript.getScriptAsString().getBytes(StandardCharsets.UTF_8);
+        for (RedisTemplate<String, Object> redisTemplate : redisKeyRouter.allTemplates()) {
+            String sha = redisTemplate.execute((RedisCallback<String>) connection ->
+                    connection.scriptingCommands().scriptLoad(script));
+            log.info("Preloaded token bucket script: {}", sha);
+        }
+    }
+
     @Override
     public long getRemainingQuota(String key) {
         try {
-            String redisKey = "tb_" + key;
-            Object tokens = redisTemplate.opsForHash().get(redisKey, "tokens");
-            return tokens != null ? Long.parseLong(tokens.toString()) : capacity;
+            String redisKey = RedisKeyRouter.hashTagged(KEY_PREFIX, key);
+            Object tokens = redisKeyRouter.templateFor(redisKey).opsForHash().get(redisKey, "tokens_fp");
+            return tokens != null ? Long.parseLong(tokens.toString()) / FIXED_POINT_SCALE : capacity;
         } catch (Exception e) {
             log.warn("Error getting remaining quota for key: {}", key, e);
             return capacity;
@@ -113,8 +139,8 @@ public class TokenBucketRateLimiter implements RateLimiter {
     @Override
     public long getResetTime(String key) {
         try {
-            String redisKey = "tb_" + key;
-            Long ttl = redisTemplate.getExpire(redisKey);
+            String redisKey = RedisKeyRouter.hashTagged(KEY_PREFIX, key);
+            Long ttl = redisKeyRouter.templateFor(redisKey).getExpire(redisKey);
             return ttl != null && ttl > 0 ? ttl * 1000 : 0;
         } catch (Exception e) {
             log.warn("Error getting reset time for key: {}", key, e);
@@ -0,0 +1,83 @@
+package com.apigateway.ratelimit.sketch;
+
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hashing;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Count-Min Sketch for approximate per-key frequencies in fixed memory
+ * Estimates never undercount; they overcount by at most total/width with
+ * probability 1 - (1/2)^depth. Updates are lock-free.
+ */
+public class CountMinSketch {
+
+    private static final HashFunction HASH = Hashing.murmur3_128();
+
+    private final int width;
+    private final int depth;
+    private final AtomicLongArray counters;
+
+    public CountMinSketch(int width, int depth) {
+        if (width <= 0 || depth <= 0) {
+            throw new IllegalArgumentException("Sketch width and depth must be positive");
+        }
+        this.width = width;
+        this.depth = depth;
+        this.counters = new AtomicLongArray(width * depth);
+    }
+
+    /**
+     * Count one occurrence of a key
+     * @return estimated count of the key including this occurrence
+     */
+    public long add(String key) {
+        ByteBuffer hash = hash(key);
+        long h1 = hash.getLong(0);
+        long h2 = hash.getLong(8);
+
+        long estimate = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            long count = counters.incrementAndGet(index(row, h1, h2));
+            estimate = Math.min(estimate, count);
+        }
+        return estimate;
+    }
+
+    /**
+     * Estimated count of a key
+     */
+    public long estimate(String key) {
+        ByteBuffer hash = hash(key);
+        long h1 = hash.getLong(0);
+        long h2 = hash.getLong(8);
+
+        long estimate = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            estimate = Math.min(estimate, counters.get(index(row, h1, h2)));
+        }
+        return estimate;
+    }
+
+    /**
+     * Halve all counters so older traffic decays away
+     */
+    public void decay() {
+        for (int i = 0; i < counters.length(); i++) {
+            counters.getAndUpdate(i, count -> count >>> 1);
+        }
+    }
+
+    private static ByteBuffer hash(String key) {
+        return ByteBuffer.wrap(HASH.hashString(key, StandardCharsets.UTF_8).asBytes())
+                .order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    // Double hashing (Kirsch-Mitzenmacher) derives one column per row from two hashes
+    private int index(int row, long h1, long h2) {
+        return row * width + (int) Math.floorMod(h1 + row * h2, (long) width);
+    }
+}
@@ -0,0 +1,93 @@
+package com.apigateway.ratelimit.sketch;
+
+import java.util.*;
+
+/**
+ * Space-Saving top-K tracker
+ * Keeps at most k counters; an unseen key replaces the smallest counter and inherits
+ * its count as overestimation error. Every key with frequency above total/k is
+ * guaranteed to be tracked.
+ */
+public class SpaceSavingTopK {
+
+    private final int capacity;
+    private final Map<String, Counter> counters = new HashMap<>();
+    private final TreeSet<Counter> byCount = new TreeSet<>(
+            Comparator.comparingLong((Counter c) -> c.count).thenComparing(c -> c.key));
+
+    public SpaceSavingTopK(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Top-K capacity must be positive");
+        }
+        this.capacity = capacity;
+    }
+
+    /**
+     * Count one occurrence of a key
+     */
+    public synchronized void offer(String key) {
+        Counter counter = counters.get(key);
+        if (counter != null) {
+            byCount.remove(counter);
+            counter.count++;
+            byCount.add(counter);
+            return;
+        }
+
+        if (counters.size() < capacity) {
+            counter = new Counter(key, 1, 0);
+        } else {
+            Counter min = byCount.pollFirst();
+            counters.remove(min.key);
+            counter = new Counter(key, min.count + 1, min.count);
+        }
+        counters.put(key, counter);
+        byCount.add(counter);
+    }
+
+    /**
+     * Tracked keys ordered by descending count
+     */
+    public synchronized List<HeavyHitter> top() {
+        List<HeavyHitter> result = new ArrayList<>(counters.size());
+        for (Counter counter : byCount.descendingSet()) {
+            result.add(new HeavyHitter(counter.key, counter.count, counter.error));
+        }
+        return result;
+    }
+
+    /**
+     * Halve all counts so older traffic decays away, dropping counters that reach zero
+     */
+    public synchronized void decay() {
+        List<Counter> all = new ArrayList<>(byCount);
+        byCount.clear();
+        for (Counter counter : all) {
+            counter.count >>>= 1;
+            counter.error >>>= 1;
+            if (counter.count == 0) {
+                counters.remove(counter.key);
+            } else {
+                byCount.add(counter);
+            }
+        }
+    }
+
+    /**
+     * A tracked key; the true count lies in [count - error, count]
+     */
+    public record HeavyHitter(String key, long count, long error) {
+    }
+
+    private static class Counter {
+        private final String key;
+        private long count;
+        private long error;
+
+        Counter(String key, long count, long error) {
+            this.key = key;
+            this.count = count;
+            this.error = error;
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.apigateway.router;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Per-route response compression policy
+ */
+@Data
+public class CompressionSettings {
+    private boolean enabled = false;
+    private int level = 6;                    // Deflate level 1 (fastest) - 9 (smallest)
+    private int minSizeBytes = 1024;          // Smaller bodies are sent uncompressed
+    private List<String> contentTypes = new ArrayList<>(List.of(
+            "application/json", "application/xml", "application/javascript", "text/"));  // Prefix match
+    private boolean cacheByEtag = true;       // Reuse compressed bodies of responses with the same ETag
+    private int maxCachedBytes = 1048576;     // Larger compressed bodies are not cached
+}
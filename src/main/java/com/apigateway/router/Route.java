@@ -22,4 +22,6 @@ public class Route {
     private long timeoutMs;           // Request timeout
     private int maxRetries;           // Number of retries on failure
     private boolean stripPathPrefix;  // Remove matching path from forwarded request
+    private UpstreamPoolSettings pool; // Connection pool tuning, defaults apply when null
+    private CompressionSettings compression; // Response compression, disabled when null
 }
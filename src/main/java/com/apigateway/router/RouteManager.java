@@ -8,6 +8,8 @@ import org.springframework.util.AntPathMatcher;
 
 import jakarta.annotation.PostConstruct;
 import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
 
 /**
  * Route manager for API Gateway
@@ -20,15 +22,34 @@ public class RouteManager {
 
     private List<Route> routes = new ArrayList<>();
     private final AntPathMatcher pathMatcher = new AntPathMatcher();
+    private final List<Consumer<String>> routeChangeListeners = new CopyOnWriteArrayList<>();
 
     @PostConstruct
     public void init() {
         // Sort routes by priority
         routes.sort(Comparator.comparingInt(Route::getPriority));
+        routes.forEach(this::compileMatcher);
         log.info("Initialized {} routes", routes.size());
         routes.forEach(r -> log.info("Route: {} -> {}", r.getPath(), r.getDestinationUrl()));
     }
 
+    /**
+     * Populate the matcher's tokenized pattern and segment regex caches for a route
+     * so the first request on it does not pay for pattern parsing
+     */
+    private void compileMatcher(Route route) {
+        if (route.getPath() != null) {
+            pathMatcher.match(route.getPath(), route.getPath());
+        }
+    }
+
+    /**
+     * Register a callback invoked with the route ID whenever a route is updated or removed
+     */
+    public void addRouteChangeListener(Consumer<String> listener) {
+        routeChangeListeners.add(listener);
+    }
+
     /**
      * Find matching route for given path
      */
@@ -59,6 +80,7 @@ public class RouteManager {
      * Add new route
      */
     public void addRoute(Route route) {
+        compileMatcher(route);
         routes.add(route);
         routes.sort(Comparator.comparingInt(Route::getPriority));
         log.info("Added route: {} -> {}", route.getPath(), route.getDestinationUrl());
@@ -76,7 +98,12 @@ public class RouteManager {
                     route.setDestinationUrl(updatedRoute.getDestinationUrl());
                     route.setEnabled(updatedRoute.isEnabled());
                     route.setPriority(updatedRoute.getPriority());
+                    route.setTimeoutMs(updatedRoute.getTimeoutMs());
+                    route.setPool(updatedRoute.getPool());
+                    route.setCompression(updatedRoute.getCompression());
+                    compileMatcher(route);
                     routes.sort(Comparator.comparingInt(Route::getPriority));
+                    routeChangeListeners.forEach(listener -> listener.accept(routeId));
                     log.info("Updated route: {}", routeId);
                 });
     }
@@ -86,6 +113,7 @@ public class RouteManager {
      */
     public void removeRoute(String routeId) {
         routes.removeIf(r -> r.getId().equals(routeId));
+        routeChangeListeners.forEach(listener -> listener.accept(routeId));
         log.info("Removed route: {}", routeId);
     }
 
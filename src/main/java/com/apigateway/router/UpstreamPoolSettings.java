@@ -0,0 +1,20 @@
+package com.apigateway.router;
+
+import lombok.Data;
+
+/**
+ * Per-route upstream connection pool configuration
+ */
+@Data
+public class UpstreamPoolSettings {
+    private boolean http2 = false;           // Use h2c (prior knowledge) and multiplex streams per connection
+    private int maxConnections = 50;         // HTTP/1.1 sockets, or HTTP/2 connections when http2 is on
+    private int maxConcurrentStreams = 100;  // Streams per HTTP/2 connection
+    private boolean keepAlive = true;
+    private long maxIdleTimeMs = 30000;      // Idle connections older than this are evicted
+    private long maxLifeTimeMs = 300000;     // Connections are recycled after this age
+    private long evictionIntervalMs = 10000; // Background eviction sweep interval
+    private long pendingAcquireTimeoutMs = 1000;
+    private long connectTimeoutMs = 2000;
+    private int prewarmConnections = 0;      // Connections opened at startup, 0 disables pre-warming
+}
@@ -0,0 +1,279 @@
+package com.apigateway.scheduling;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Weighted fair queuing scheduler for admitted requests
+ * Bounds in-flight requests and, when saturated, queues them per tenant.
+ * Tenants are served in order of their virtual finish time (self-clocked fair queuing),
+ * so a noisy tenant only delays its own queue. Requests that would outlive their
+ * deadline while queued are shed instead of being forwarded late.
+ * Queued requests park their servlet thread, so maxConcurrent must stay well below the
+ * Tomcat worker pool (server.tomcat.threads.max); the difference bounds the total queue depth.
+ */
+@Slf4j
+@Component
+@ConfigurationProperties(prefix = "gateway.scheduling")
+public class FairQueueScheduler {
+
+    private boolean enabled = true;
+    private int maxConcurrent = 100;          // In-flight requests before queuing starts
+    private int maxQueuePerTenant = 100;      // Queued requests per tenant before shedding
+    private long defaultDeadlineMs = 5000;    // Used when the route has no timeoutMs
+    private int defaultWeight = 1;
+    private Map<String, Integer> weights = new HashMap<>(); // tenant -> weight, higher = larger share
+
+    @Value("${server.tomcat.threads.max:200}")
+    private int workerThreads;
+
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final PriorityQueue<Ticket> queue = new PriorityQueue<>();
+    private final Map<String, TenantState> tenants = new HashMap<>();
+    private int inFlight;
+    private double virtualTime;
+    private long sequence;
+    private double avgServiceNanos = TimeUnit.MILLISECONDS.toNanos(10);
+
+    @PostConstruct
+    public void init() {
+        if (enabled && !virtualThreads && maxConcurrent >= workerThreads) {
+            // Every worker thread would be in flight before anything queues, so a noisy tenant still takes them all
+            throw new IllegalStateException("gateway.scheduling.max-concurrent (" + maxConcurrent
+                    + ") must be below server.tomcat.threads.max (" + workerThreads
+                    + "), or enable spring.threads.virtual.enabled");
+        }
+        log.info("Fair queue scheduler enabled={} maxConcurrent={} maxQueuePerTenant={} queueCapacity={}",
+                enabled, maxConcurrent, maxQueuePerTenant,
+                virtualThreads ? "unbounded" : String.valueOf(workerThreads - maxConcurrent));
+    }
+
+    /**
+     * Wait for an execution slot for the tenant
+     * @param tenant rate limit key identifying the tenant
+     * @param timeoutMs request timeout of the matched route, 0 to use the default deadline
+     * @return true if the request may proceed, false if it was shed
+     */
+    public boolean acquire(String tenant, long timeoutMs) throws InterruptedException {
+        if (!enabled) {
+            return true;
+        }
+
+        long deadlineMs = timeoutMs > 0 ? timeoutMs : defaultDeadlineMs;
+        Ticket ticket = null;
+
+        lock.lock();
+        try {
+            if (inFlight < maxConcurrent && queue.isEmpty()) {
+                inFlight++;
+                return true;
+            }
+
+            TenantState state = tenants.computeIfAbsent(tenant, t -> new TenantState());
+            if (state.queued >= maxQueuePerTenant) {
+                log.warn("Shedding request for tenant {}: queue full ({})", tenant, state.queued);
+                return false;
+            }
+
+            // Estimated wait: everything queued ahead drains at maxConcurrent requests per service time
+            long expectedWaitNanos = (long) ((queue.size() + 1) * avgServiceNanos / maxConcurrent);
+            if (expectedWaitNanos >= TimeUnit.MILLISECONDS.toNanos(deadlineMs)) {
+                log.warn("Shedding request for tenant {}: expected wait {}ms exceeds deadline {}ms",
+                        tenant, TimeUnit.NANOSECONDS.toMillis(expectedWaitNanos), deadlineMs);
+                return false;
+            }
+
+            double start = Math.max(virtualTime, state.lastFinish);
+            ticket = new Ticket(tenant, start + 1.0 / weightOf(tenant), sequence++,
+                    System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(deadlineMs), lock.newCondition());
+            state.lastFinish = ticket.finish;
+            state.queued++;
+            queue.add(ticket);
+
+            while (!ticket.granted) {
+                long remaining = ticket.deadlineNanos - System.nanoTime();
+                if (remaining <= 0) {
+                    dequeue(ticket);
+                    log.warn("Shedding request for tenant {}: deadline expired while queued", tenant);
+                    return false;
+                }
+                ticket.ready.awaitNanos(remaining);
+            }
+            return true;
+        } catch (InterruptedException e) {
+            if (ticket != null && ticket.granted) {
+                // Slot was handed over but the caller will never release it
+                inFlight--;
+                dispatch();
+            } else if (ticket != null) {
+                dequeue(ticket);
+            }
+            throw e;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Release an execution slot and hand it to the next queued request
+     * @param serviceNanos time the request held the slot, used to estimate queue wait
+     */
+    public void release(long serviceNanos) {
+        if (!enabled) {
+            return;
+        }
+
+        lock.lock();
+        try {
+            inFlight--;
+            avgServiceNanos = avgServiceNanos * 0.9 + serviceNanos * 0.1;
+            dispatch();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void dispatch() {
+        long now = System.nanoTime();
+        while (inFlight < maxConcurrent && !queue.isEmpty()) {
+            Ticket next = queue.poll();
+            TenantState state = tenants.get(next.tenant);
+            if (--state.queued == 0) {
+                tenants.remove(next.tenant);
+            }
+            if (next.deadlineNanos <= now) {
+                // Waiter observes its own deadline and sheds; do not spend a slot on it
+                next.ready.signal();
+                continue;
+            }
+            virtualTime = next.finish;
+            next.granted = true;
+            inFlight++;
+            next.ready.signal();
+        }
+    }
+
+    private void dequeue(Ticket ticket) {
+        if (queue.remove(ticket)) {
+            TenantState state = tenants.get(ticket.tenant);
+            if (state != null && --state.queued == 0) {
+                tenants.remove(ticket.tenant);
+            }
+        }
+    }
+
+    private int weightOf(String tenant) {
+        return Math.max(1, weights.getOrDefault(tenant, defaultWeight));
+    }
+
+    /**
+     * Number of requests currently holding an execution slot
+     */
+    public int getInFlight() {
+        lock.lock();
+        try {
+            return inFlight;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Number of requests waiting across all tenant queues
+     */
+    public int getQueued() {
+        lock.lock();
+        try {
+            return queue.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static class TenantState {
+        private int queued;
+        private double lastFinish;
+    }
+
+    private static class Ticket implements Comparable<Ticket> {
+        private final String tenant;
+        private final double finish;
+        private final long seq;
+        private final long deadlineNanos;
+        private final Condition ready;
+        private boolean granted;
+
+        Ticket(String tenant, double finish, long seq, long deadlineNanos, Condition ready) {
+            this.tenant = tenant;
+            this.finish = finish;
+            this.seq = seq;
+            this.deadlineNanos = deadlineNanos;
+            this.ready = ready;
+        }
+
+        @Override
+        public int compareTo(Ticket other) {
+            int cmp = Double.compare(finish, other.finish);
+            return cmp != 0 ? cmp : Long.compare(seq, other.seq);
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getMaxConcurrent() {
+        return maxConcurrent;
+    }
+
+    public void setMaxConcurrent(int maxConcurrent) {
+        this.maxConcurrent = maxConcurrent;
+    }
+
+    public int getMaxQueuePerTenant() {
+        return maxQueuePerTenant;
+    }
+
+    public void setMaxQueuePerTenant(int maxQueuePerTenant) {
+        this.maxQueuePerTenant = maxQueuePerTenant;
+    }
+
+    public long getDefaultDeadlineMs() {
+        return defaultDeadlineMs;
+    }
+
+    public void setDefaultDeadlineMs(long defaultDeadlineMs) {
+        this.defaultDeadlineMs = defaultDeadlineMs;
+    }
+
+    public int getDefaultWeight() {
+        return defaultWeight;
+    }
+
+    public void setDefaultWeight(int defaultWeight) {
+        this.defaultWeight = defaultWeight;
+    }
+
+    public Map<String, Integer> getWeights() {
+        return weights;
+    }
+
+    public void setWeights(Map<String, Integer> weights) {
+        this.weights = weights;
+    }
+}
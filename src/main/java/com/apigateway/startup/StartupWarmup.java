@@ -0,0 +1,154 @@
+package com.apigateway.startup;
+
+import com.apigateway.ratelimit.RateLimiter;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.env.Environment;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClient;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Startup warmup executed before the instance reports ready
+ * Application runners complete before readiness switches to ACCEPTING_TRAFFIC, so the
+ * load balancer only sees this instance once Lua scripts are loaded, the Redis connection
+ * is open and the rate limiters and interceptor chain have been exercised by the JIT.
+ * Route matchers are compiled earlier in RouteManager.init, and upstream pools are
+ * pre-warmed independently by UpstreamClientRegistry.
+ */
+@Slf4j
+@Component
+public class StartupWarmup implements ApplicationRunner {
+
+    public static final String WARMUP_REQUEST_ATTRIBUTE = "gatewayWarmupRequest";
+    private static final String WARMUP_HEADER = "X-Gateway-Warmup";
+
+    private final List<RateLimiter> rateLimiters;
+    private final RedisConnectionFactory redisConnectionFactory;
+    private final Environment environment;
+    private final String warmupToken = UUID.randomUUID().toString(); // Only known in-process, so clients cannot spoof it
+    private volatile boolean warmingUp;
+
+    @Value("${gateway.warmup.enabled:true}")
+    private boolean warmupEnabled;
+
+    @Value("${gateway.warmup.requests:200}")
+    private int warmupRequests;
+
+    public StartupWarmup(List<RateLimiter> rateLimiters,
+                         RedisConnectionFactory redisConnectionFactory,
+                         Environment environment) {
+        this.rateLimiters = rateLimiters;
+        this.redisConnectionFactory = redisConnectionFactory;
+        this.environment = environment;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!warmupEnabled) {
+            return;
+        }
+
+        long start = System.currentTimeMillis();
+        openRedisConnection();
+        preloadRateLimiters();
+        exerciseRateLimiters();
+        exerciseInterceptorChain();
+        log.info("Startup warmup completed in {}ms", System.currentTimeMillis() - start);
+    }
+
+    /**
+     * Whether the request is a synthetic warmup request sent by this instance
+     * Marks the request with WARMUP_REQUEST_ATTRIBUTE so later stages can skip it cheaply
+     */
+    public boolean isWarmupRequest(HttpServletRequest request) {
+        if (request.getAttribute(WARMUP_REQUEST_ATTRIBUTE) != null) {
+            return true;
+        }
+        if (warmingUp && warmupToken.equals(request.getHeader(WARMUP_HEADER))) {
+            request.setAttribute(WARMUP_REQUEST_ATTRIBUTE, Boolean.TRUE);
+            return true;
+        }
+        return false;
+    }
+
+    private void openRedisConnection() {
+        try (RedisConnection connection = redisConnectionFactory.getConnection()) {
+            log.info("Redis connection ready: {}", connection.ping());
+        } catch (Exception e) {
+            log.warn("Redis not reachable during warmup, rate limiting will fail open: {}", e.getMessage());
+        }
+    }
+
+    private void preloadRateLimiters() {
+        for (RateLimiter rateLimiter : rateLimiters) {
+            try {
+                rateLimiter.preload();
+            } catch (Exception e) {
+                log.warn("Failed to preload {}: {}", rateLimiter.getClass().getSimpleName(), e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Call every rate limiter (Redis EVALSHA and in-process buckets) under a synthetic key
+     * so their paths are JIT-compiled; the key is unique to this boot, so no client's bucket
+     * is touched, and its Redis entry expires with the bucket TTL
+     */
+    private void exerciseRateLimiters() {
+        String warmupKey = "warmup-" + warmupToken;
+        for (RateLimiter rateLimiter : rateLimiters) {
+            try {
+                for (int i = 0; i < warmupRequests; i++) {
+                    rateLimiter.allowRequest(warmupKey);
+                    rateLimiter.getRemainingQuota(warmupKey);
+                    rateLimiter.getResetTime(warmupKey);
+                }
+            } catch (Exception e) {
+                log.warn("Failed to exercise {}: {}", rateLimiter.getClass().getSimpleName(), e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Send synthetic requests to this instance so the servlet stack and interceptors are
+     * class-loaded and JIT-compiled before real traffic arrives; rate limiting is skipped
+     * for them and exercised directly by exerciseRateLimiters
+     */
+    private void exerciseInterceptorChain() {
+        Integer port = environment.getProperty("local.server.port", Integer.class);
+        if (port == null || warmupRequests <= 0) {
+            return;
+        }
+
+        // Warmup requests bypass rate limiting, so they never consume a real client's bucket
+        // (with the ip key generator they would all share the loopback address)
+        RestClient client = RestClient.create("http://localhost:" + port);
+        int completed = 0;
+        warmingUp = true;
+        try {
+            for (int i = 0; i < warmupRequests; i++) {
+                try {
+                    client.get()
+                            .uri("/")
+                            .header(WARMUP_HEADER, warmupToken)
+                            .retrieve()
+                            .toBodilessEntity();
+                    completed++;
+                } catch (Exception e) {
+                    log.debug("Warmup request failed: {}", e.getMessage());
+                }
+            }
+        } finally {
+            warmingUp = false;
+        }
+        log.info("Sent {}/{} warmup requests through the interceptor chain", completed, warmupRequests);
+    }
+}
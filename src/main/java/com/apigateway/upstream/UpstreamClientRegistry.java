@@ -0,0 +1,158 @@
+package com.apigateway.upstream;
+
+import com.apigateway.router.Route;
+import com.apigateway.router.RouteManager;
+import com.apigateway.router.UpstreamPoolSettings;
+import io.netty.channel.ChannelOption;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationStartedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.client.Http2AllocationStrategy;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-route upstream HTTP clients backed by dedicated connection pools
+ * Each route gets its own pool (HTTP/1.1 keep-alive or multiplexed h2c) so one slow
+ * upstream cannot exhaust connections for others. Pool statistics are published to
+ * Micrometer as reactor.netty.connection.provider.* tagged with name=upstream-&lt;route-id&gt;
+ */
+@Slf4j
+@Component
+public class UpstreamClientRegistry {
+
+    private static final Duration PREWARM_TIMEOUT = Duration.ofSeconds(10);
+
+    private final RouteManager routeManager;
+    private final Map<String, UpstreamClient> clients = new ConcurrentHashMap<>();
+
+    public UpstreamClientRegistry(RouteManager routeManager) {
+        this.routeManager = routeManager;
+        // Updated routes get a fresh pool with their new settings on next use
+        routeManager.addRouteChangeListener(this::evict);
+    }
+
+    /**
+     * Get the pooled client for a route, creating its pool on first use
+     * Requests must use absolute URIs built from the route's current destination URL
+     */
+    public WebClient getClient(Route route) {
+        return clients.computeIfAbsent(route.getId(), id -> createClient(route)).webClient();
+    }
+
+    /**
+     * Dispose the pool of a route after it was updated or removed
+     */
+    public void evict(String routeId) {
+        UpstreamClient client = clients.remove(routeId);
+        if (client != null) {
+            client.provider().disposeLater().subscribe();
+            log.info("Disposed upstream pool for route: {}", routeId);
+        }
+    }
+
+    /**
+     * Open connections for all enabled routes that request pre-warming
+     * Runs on application start, before the instance reports ready
+     */
+    @EventListener(ApplicationStartedEvent.class)
+    public void prewarm() {
+        routeManager.getAllRoutes().stream()
+                .filter(Route::isEnabled)
+                .forEach(this::prewarm);
+    }
+
+    private void prewarm(Route route) {
+        UpstreamPoolSettings settings = settingsOf(route);
+        WebClient client = getClient(route);
+        int connections = Math.min(settings.getPrewarmConnections(), settings.getMaxConnections());
+
+        try {
+            clients.get(route.getId()).httpClient().warmup().block(PREWARM_TIMEOUT);
+            if (connections <= 0) {
+                return;
+            }
+
+            // With h2c the pool keeps minConnections open, so concurrent requests are spread over
+            // that many connections instead of being multiplexed onto the first one
+            Long opened = Flux.range(0, connections)
+                    .flatMap(i -> client.head()
+                            .uri(route.getDestinationUrl())
+                            .exchangeToMono(response -> response.releaseBody().thenReturn(1))
+                            .onErrorResume(e -> Mono.empty()), connections)
+                    .count()
+                    .block(PREWARM_TIMEOUT);
+            log.info("Pre-warmed {}/{} upstream connections for route {} -> {}",
+                    opened, connections, route.getId(), route.getDestinationUrl());
+        } catch (Exception e) {
+            log.warn("Failed to pre-warm upstream connections for route: {}", route.getId(), e);
+        }
+    }
+
+    private UpstreamClient createClient(Route route) {
+        UpstreamPoolSettings settings = settingsOf(route);
+
+        ConnectionProvider.Builder providerBuilder = ConnectionProvider.builder("upstream-" + route.getId())
+                .maxConnections(settings.getMaxConnections())
+                .pendingAcquireTimeout(Duration.ofMillis(settings.getPendingAcquireTimeoutMs()))
+                .maxIdleTime(Duration.ofMillis(settings.getMaxIdleTimeMs()))
+                .maxLifeTime(Duration.ofMillis(settings.getMaxLifeTimeMs()))
+                .evictInBackground(Duration.ofMillis(settings.getEvictionIntervalMs()))
+                .metrics(true);
+
+        if (settings.isHttp2()) {
+            // Caps the streams this client opens per connection (http2Settings would only advertise
+            // a limit to the server) and keeps the pre-warmed connections open
+            providerBuilder.allocationStrategy(Http2AllocationStrategy.builder()
+                    .maxConnections(settings.getMaxConnections())
+                    .maxConcurrentStreams(settings.getMaxConcurrentStreams())
+                    .minConnections(Math.min(settings.getPrewarmConnections(), settings.getMaxConnections()))
+                    .build());
+        }
+        ConnectionProvider provider = providerBuilder.build();
+
+        HttpClient httpClient = HttpClient.create(provider)
+                .keepAlive(settings.isKeepAlive())
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) settings.getConnectTimeoutMs());
+
+        if (settings.isHttp2()) {
+            httpClient = httpClient.protocol(HttpProtocol.H2C);
+        }
+
+        if (route.getTimeoutMs() > 0) {
+            httpClient = httpClient.responseTimeout(Duration.ofMillis(route.getTimeoutMs()));
+        }
+
+        log.info("Created upstream pool for route {}: http2={} maxConnections={} maxIdleTimeMs={}",
+                route.getId(), settings.isHttp2(), settings.getMaxConnections(), settings.getMaxIdleTimeMs());
+
+        WebClient webClient = WebClient.builder()
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
+                .build();
+        return new UpstreamClient(provider, httpClient, webClient);
+    }
+
+    private static UpstreamPoolSettings settingsOf(Route route) {
+        return route.getPool() != null ? route.getPool() : new UpstreamPoolSettings();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        clients.values().forEach(client -> client.provider().dispose());
+        clients.clear();
+    }
+
+    private record UpstreamClient(ConnectionProvider provider, HttpClient httpClient, WebClient webClient) {
+    }
+}
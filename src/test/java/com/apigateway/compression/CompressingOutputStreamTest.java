@@ -0,0 +1,94 @@
+package com.apigateway.compression;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+
+class CompressingOutputStreamTest {
+
+    private DeflaterPool pool;
+
+    @BeforeEach
+    void setUp() {
+        pool = new DeflaterPool();
+        ReflectionTestUtils.setField(pool, "maxIdlePerLevel", 4);
+    }
+
+    @Test
+    void gzipRoundTrip() throws IOException {
+        byte[] body = json(50_000);
+        assertArrayEquals(body, gunzip(compress(body, CompressingOutputStream.GZIP, false)));
+    }
+
+    @Test
+    void deflateRoundTrip() throws IOException {
+        byte[] body = json(50_000);
+        assertArrayEquals(body, inflate(compress(body, CompressingOutputStream.DEFLATE, false)));
+    }
+
+    @Test
+    void gzipRoundTripWithFlushes() throws IOException {
+        byte[] body = json(50_000);
+        assertArrayEquals(body, gunzip(compress(body, CompressingOutputStream.GZIP, true)));
+    }
+
+    @Test
+    void incompressibleBodyRoundTrip() throws IOException {
+        byte[] body = new byte[100_000];
+        new Random(42).nextBytes(body);
+        assertArrayEquals(body, gunzip(compress(body, CompressingOutputStream.GZIP, true)));
+    }
+
+    @Test
+    void pooledDeflaterIsResetBetweenStreams() throws IOException {
+        byte[] first = json(10_000);
+        byte[] second = "{\"second\":true}".getBytes(StandardCharsets.UTF_8);
+        assertArrayEquals(first, gunzip(compress(first, CompressingOutputStream.GZIP, false)));
+        assertArrayEquals(second, gunzip(compress(second, CompressingOutputStream.GZIP, false)));
+    }
+
+    private byte[] compress(byte[] body, String encoding, boolean flushInBetween) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        CompressingOutputStream compressor = new CompressingOutputStream(out, encoding, 6, pool);
+        int chunk = 1000;
+        for (int off = 0; off < body.length; off += chunk) {
+            compressor.write(body, off, Math.min(chunk, body.length - off));
+            if (flushInBetween) {
+                compressor.flush();
+            }
+        }
+        compressor.finish();
+        return out.toByteArray();
+    }
+
+    private static byte[] gunzip(byte[] data) throws IOException {
+        try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(data))) {
+            return in.readAllBytes();
+        }
+    }
+
+    private static byte[] inflate(byte[] data) throws IOException {
+        try (InputStream in = new InflaterInputStream(new ByteArrayInputStream(data))) {
+            return in.readAllBytes();
+        }
+    }
+
+    private static byte[] json(int size) {
+        StringBuilder json = new StringBuilder("[");
+        for (int i = 0; json.length() < size; i++) {
+            json.append("{\"id\":").append(i).append(",\"name\":\"user-").append(i).append("\"},");
+        }
+        return json.append("{}]").toString().getBytes(StandardCharsets.UTF_8);
+    }
+}
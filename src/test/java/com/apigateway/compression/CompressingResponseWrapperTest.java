@@ -0,0 +1,147 @@
+package com.apigateway.compression;
+
+import com.apigateway.router.CompressionSettings;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class CompressingResponseWrapperTest {
+
+    private DeflaterPool pool;
+    private CompressedResponseCache cache;
+    private CompressionSettings settings;
+
+    @BeforeEach
+    void setUp() {
+        pool = new DeflaterPool();
+        ReflectionTestUtils.setField(pool, "maxIdlePerLevel", 4);
+        cache = new CompressedResponseCache();
+        ReflectionTestUtils.setField(cache, "maxBytes", 1_000_000L);
+        ReflectionTestUtils.setField(cache, "ttlSeconds", 60L);
+        cache.init();
+        settings = new CompressionSettings();
+        settings.setEnabled(true);
+    }
+
+    @Test
+    void compressesLargeJsonBody() throws IOException {
+        byte[] body = json("a", 20_000);
+        MockHttpServletResponse response = serve("/api/users", null, body);
+
+        assertEquals("gzip", response.getHeader("Content-Encoding"));
+        assertArrayEquals(body, gunzip(response.getContentAsByteArray()));
+    }
+
+    @Test
+    void passesSmallBodyThroughWithLength() throws IOException {
+        byte[] body = "{\"ok\":true}".getBytes(StandardCharsets.UTF_8);
+        MockHttpServletResponse response = serve("/api/users", null, body);
+
+        assertNull(response.getHeader("Content-Encoding"));
+        assertEquals(body.length, response.getContentLength());
+        assertArrayEquals(body, response.getContentAsByteArray());
+    }
+
+    @Test
+    void cacheIsKeyedByRequestTarget() throws IOException {
+        byte[] first = json("first", 5_000);
+        byte[] second = json("second", 5_000);
+
+        serve("/api/users/1", "\"1\"", first);
+        MockHttpServletResponse other = serve("/api/users/2", "\"1\"", second);
+        assertArrayEquals(second, gunzip(other.getContentAsByteArray()));
+
+        // Same target and ETag is served from the cache, whatever the handler writes
+        MockHttpServletResponse cached = serve("/api/users/1", "\"1\"", second);
+        assertArrayEquals(first, gunzip(cached.getContentAsByteArray()));
+        assertEquals("W/\"1\"", cached.getHeader("ETag"));
+    }
+
+    @Test
+    void weakEtagIsNotCached() throws IOException {
+        byte[] first = json("first", 5_000);
+        byte[] second = json("second", 5_000);
+
+        serve("/api/users/1", "W/\"1\"", first);
+        MockHttpServletResponse response = serve("/api/users/1", "W/\"1\"", second);
+        assertArrayEquals(second, gunzip(response.getContentAsByteArray()));
+    }
+
+    @Test
+    void resetDropsCompressionState() throws IOException {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        CompressingResponseWrapper wrapper = wrap(response, "/api/users");
+        wrapper.setContentType("application/json");
+        wrapper.getOutputStream().write(json("discarded", 2_000));
+        wrapper.reset();
+
+        byte[] error = "{\"error\":\"failed\"}".getBytes(StandardCharsets.UTF_8);
+        wrapper.setStatus(500);
+        wrapper.setContentType("application/json");
+        wrapper.getOutputStream().write(error);
+        wrapper.finish();
+        wrapper.release();
+
+        assertNull(response.getHeader("Content-Encoding"));
+        assertArrayEquals(error, response.getContentAsByteArray());
+    }
+
+    @Test
+    void resetBufferRestartsCompressedStream() throws IOException {
+        byte[] body = json("kept", 3_000);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        CompressingResponseWrapper wrapper = wrap(response, "/api/users");
+        wrapper.setContentType("application/json");
+        wrapper.getOutputStream().write(json("discarded", 2_000));
+        wrapper.resetBuffer();
+        wrapper.getOutputStream().write(body);
+        wrapper.finish();
+        wrapper.release();
+
+        assertEquals("gzip", response.getHeader("Content-Encoding"));
+        assertArrayEquals(body, gunzip(response.getContentAsByteArray()));
+    }
+
+    private MockHttpServletResponse serve(String target, String etag, byte[] body) throws IOException {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        CompressingResponseWrapper wrapper = wrap(response, target);
+        wrapper.setContentType("application/json");
+        if (etag != null) {
+            wrapper.setHeader("ETag", etag);
+        }
+        wrapper.getOutputStream().write(body);
+        wrapper.finish();
+        wrapper.release();
+        return response;
+    }
+
+    private CompressingResponseWrapper wrap(MockHttpServletResponse response, String target) {
+        return new CompressingResponseWrapper(response, settings, CompressingOutputStream.GZIP,
+                "user-service", target, pool, cache);
+    }
+
+    private static byte[] gunzip(byte[] data) throws IOException {
+        try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(data))) {
+            return in.readAllBytes();
+        }
+    }
+
+    private static byte[] json(String name, int size) {
+        StringBuilder json = new StringBuilder("[");
+        for (int i = 0; json.length() < size; i++) {
+            json.append("{\"id\":").append(i).append(",\"name\":\"").append(name).append("\"},");
+        }
+        return json.append("{}]").toString().getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,36 @@
+package com.apigateway.filter;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class CompressionFilterTest {
+
+    @Test
+    void prefersGzip() {
+        assertEquals("gzip", CompressionFilter.negotiate("deflate, gzip"));
+        assertEquals("gzip", CompressionFilter.negotiate("br;q=1.0, gzip;q=0.8, *;q=0.1"));
+    }
+
+    @Test
+    void fallsBackToDeflate() {
+        assertEquals("deflate", CompressionFilter.negotiate("deflate"));
+        assertEquals("deflate", CompressionFilter.negotiate("gzip;q=0, deflate"));
+    }
+
+    @Test
+    void wildcardMeansGzip() {
+        assertEquals("gzip", CompressionFilter.negotiate("*"));
+    }
+
+    @Test
+    void rejectsUnsupportedOrRefusedCodings() {
+        assertNull(CompressionFilter.negotiate(null));
+        assertNull(CompressionFilter.negotiate(""));
+        assertNull(CompressionFilter.negotiate("br"));
+        assertNull(CompressionFilter.negotiate("identity"));
+        assertNull(CompressionFilter.negotiate("gzip;q=0"));
+        assertNull(CompressionFilter.negotiate("gzip;q=invalid"));
+    }
+}
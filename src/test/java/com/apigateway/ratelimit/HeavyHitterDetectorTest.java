@@ -0,0 +1,62 @@
+package com.apigateway.ratelimit;
+
+import com.apigateway.ratelimit.sketch.SpaceSavingTopK;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HeavyHitterDetectorTest {
+
+    private HeavyHitterDetector detector;
+
+    @BeforeEach
+    void setUp() {
+        detector = new HeavyHitterDetector();
+        ReflectionTestUtils.setField(detector, "enabled", true);
+        ReflectionTestUtils.setField(detector, "threshold", 10L);
+        ReflectionTestUtils.setField(detector, "windowMs", 60_000L);
+        ReflectionTestUtils.setField(detector, "topK", 10);
+        ReflectionTestUtils.setField(detector, "sketchWidth", 4096);
+        ReflectionTestUtils.setField(detector, "sketchDepth", 4);
+        detector.init();
+    }
+
+    @Test
+    void keyIsEscalatedOnceItReachesThreshold() {
+        for (int i = 1; i < 10; i++) {
+            assertFalse(detector.record("client"), "request " + i + " should stay local");
+        }
+        assertTrue(detector.record("client"));
+        assertTrue(detector.record("client"));
+        assertFalse(detector.record("other"));
+    }
+
+    @Test
+    void onlyKeysNearThresholdAreTracked() {
+        detector.record("tail");
+        for (int i = 0; i < 8; i++) {
+            detector.record("warm");
+        }
+
+        // Offered from an estimate of threshold / 2 = 5 onwards
+        List<SpaceSavingTopK.HeavyHitter> heavyHitters = detector.getHeavyHitters();
+        assertEquals(List.of(new SpaceSavingTopK.HeavyHitter("warm", 4, 0)), heavyHitters);
+    }
+
+    @Test
+    void countsDecayAtWindowBoundary() {
+        for (int i = 0; i < 10; i++) {
+            detector.record("client");
+        }
+        ReflectionTestUtils.setField(detector, "windowStart", 0L);
+
+        // Halved to 5, so the next request (6) is back below the threshold
+        assertFalse(detector.record("client"));
+    }
+}
@@ -0,0 +1,65 @@
+package com.apigateway.ratelimit.sketch;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CountMinSketchTest {
+
+    @Test
+    void neverUndercounts() {
+        // Narrow sketch so collisions are guaranteed
+        CountMinSketch sketch = new CountMinSketch(64, 4);
+        Map<String, Long> actual = new HashMap<>();
+        Random random = new Random(7);
+        for (int i = 0; i < 20_000; i++) {
+            // Skewed key distribution: a few hot keys and a long tail
+            String key = "client-" + (int) Math.pow(random.nextInt(1000), 2) / 1000;
+            actual.merge(key, 1L, Long::sum);
+            sketch.add(key);
+        }
+
+        actual.forEach((key, count) -> assertTrue(sketch.estimate(key) >= count,
+                () -> key + " estimated " + sketch.estimate(key) + " but seen " + count));
+    }
+
+    @Test
+    void addReturnsRunningEstimate() {
+        CountMinSketch sketch = new CountMinSketch(4096, 4);
+        for (int i = 1; i <= 5; i++) {
+            assertEquals(i, sketch.add("key"));
+        }
+        assertEquals(0, sketch.estimate("unseen"));
+    }
+
+    @Test
+    void decayHalvesCounters() {
+        CountMinSketch sketch = new CountMinSketch(4096, 4);
+        for (int i = 0; i < 10; i++) {
+            sketch.add("even");
+        }
+        for (int i = 0; i < 7; i++) {
+            sketch.add("odd");
+        }
+
+        sketch.decay();
+        assertEquals(5, sketch.estimate("even"));
+        assertEquals(3, sketch.estimate("odd"));
+
+        sketch.decay();
+        sketch.decay();
+        assertEquals(0, sketch.estimate("odd"));
+    }
+
+    @Test
+    void rejectsInvalidDimensions() {
+        assertThrows(IllegalArgumentException.class, () -> new CountMinSketch(0, 4));
+        assertThrows(IllegalArgumentException.class, () -> new CountMinSketch(64, 0));
+    }
+}
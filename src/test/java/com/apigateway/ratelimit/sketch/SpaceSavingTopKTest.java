@@ -0,0 +1,76 @@
+package com.apigateway.ratelimit.sketch;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class SpaceSavingTopKTest {
+
+    @Test
+    void tracksCountsInDescendingOrder() {
+        SpaceSavingTopK topK = new SpaceSavingTopK(3);
+        offer(topK, "a", 3);
+        offer(topK, "b", 5);
+        offer(topK, "c", 1);
+
+        assertEquals(List.of(
+                new SpaceSavingTopK.HeavyHitter("b", 5, 0),
+                new SpaceSavingTopK.HeavyHitter("a", 3, 0),
+                new SpaceSavingTopK.HeavyHitter("c", 1, 0)), topK.top());
+    }
+
+    @Test
+    void newKeyEvictsMinimumAndInheritsItsCountAsError() {
+        SpaceSavingTopK topK = new SpaceSavingTopK(2);
+        offer(topK, "a", 4);
+        offer(topK, "b", 2);
+        topK.offer("c");
+
+        assertEquals(List.of(
+                new SpaceSavingTopK.HeavyHitter("a", 4, 0),
+                new SpaceSavingTopK.HeavyHitter("c", 3, 2)), topK.top());
+    }
+
+    @Test
+    void frequentKeySurvivesLongTail() {
+        SpaceSavingTopK topK = new SpaceSavingTopK(5);
+        for (int i = 0; i < 1000; i++) {
+            topK.offer("hot");
+            topK.offer("tail-" + i);
+        }
+
+        SpaceSavingTopK.HeavyHitter top = topK.top().get(0);
+        assertEquals("hot", top.key());
+        assertEquals(1000, top.count() - top.error(), 1000 / 5);
+    }
+
+    @Test
+    void decayHalvesCountsAndDropsZeroCounters() {
+        SpaceSavingTopK topK = new SpaceSavingTopK(3);
+        offer(topK, "a", 4);
+        offer(topK, "b", 1);
+
+        topK.decay();
+        assertEquals(List.of(new SpaceSavingTopK.HeavyHitter("a", 2, 0)), topK.top());
+
+        // A dropped counter frees its slot, so a new key starts from scratch
+        topK.offer("b");
+        assertEquals(List.of(
+                new SpaceSavingTopK.HeavyHitter("a", 2, 0),
+                new SpaceSavingTopK.HeavyHitter("b", 1, 0)), topK.top());
+    }
+
+    @Test
+    void rejectsNonPositiveCapacity() {
+        assertThrows(IllegalArgumentException.class, () -> new SpaceSavingTopK(0));
+    }
+
+    private static void offer(SpaceSavingTopK topK, String key, int times) {
+        for (int i = 0; i < times; i++) {
+            topK.offer(key);
+        }
+    }
+}
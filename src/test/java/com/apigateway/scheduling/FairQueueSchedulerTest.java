@@ -0,0 +1,155 @@
+package com.apigateway.scheduling;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FairQueueSchedulerTest {
+
+    private FairQueueScheduler scheduler;
+
+    @BeforeEach
+    void setUp() {
+        scheduler = new FairQueueScheduler();
+        scheduler.setMaxConcurrent(1);
+        scheduler.setMaxQueuePerTenant(10);
+        scheduler.setDefaultDeadlineMs(5000);
+    }
+
+    @Test
+    void admitsImmediatelyBelowLimit() throws InterruptedException {
+        assertTrue(scheduler.acquire("a", 0));
+        assertEquals(1, scheduler.getInFlight());
+        assertEquals(0, scheduler.getQueued());
+
+        scheduler.release(0);
+        assertEquals(0, scheduler.getInFlight());
+    }
+
+    @Test
+    void servesQueuedTenantsByWeightedFinishTime() throws Exception {
+        scheduler.setWeights(Map.of("premium", 2));
+        assertTrue(scheduler.acquire("holder", 0));
+
+        List<String> served = Collections.synchronizedList(new ArrayList<>());
+        List<Thread> waiters = new ArrayList<>();
+        // Virtual finish times: standard 1, 2, 3; premium (weight 2) 0.5, 1, 1.5
+        for (String tenant : List.of("standard", "standard", "standard", "premium", "premium", "premium")) {
+            waiters.add(startWaiter(tenant, served));
+            awaitQueued(waiters.size());
+        }
+
+        scheduler.release(0);
+        for (Thread waiter : waiters) {
+            waiter.join(5000);
+        }
+
+        assertEquals(List.of("premium", "standard", "premium", "premium", "standard", "standard"), served);
+        assertEquals(0, scheduler.getInFlight());
+        assertEquals(0, scheduler.getQueued());
+    }
+
+    @Test
+    void shedsWhenTenantQueueIsFull() throws Exception {
+        scheduler.setMaxQueuePerTenant(1);
+        assertTrue(scheduler.acquire("holder", 0));
+        Thread waiter = startWaiter("noisy", Collections.synchronizedList(new ArrayList<>()));
+        awaitQueued(1);
+
+        assertFalse(scheduler.acquire("noisy", 0));
+        assertEquals(1, scheduler.getQueued());
+
+        scheduler.release(0);
+        waiter.join(5000);
+        assertEquals(0, scheduler.getInFlight());
+    }
+
+    @Test
+    void shedsWhenExpectedWaitExceedsDeadline() throws InterruptedException {
+        assertTrue(scheduler.acquire("holder", 0));
+
+        // Initial service time estimate is 10ms, so a 5ms deadline cannot be met
+        assertFalse(scheduler.acquire("late", 5));
+        assertEquals(0, scheduler.getQueued());
+    }
+
+    @Test
+    void shedsWhenDeadlineExpiresWhileQueued() throws InterruptedException {
+        assertTrue(scheduler.acquire("holder", 0));
+
+        long start = System.nanoTime();
+        assertFalse(scheduler.acquire("waiter", 50));
+        assertTrue(System.nanoTime() - start >= 50_000_000L);
+        assertEquals(0, scheduler.getQueued());
+        assertEquals(1, scheduler.getInFlight());
+    }
+
+    @Test
+    void interruptedWaiterLeavesQueueWithoutTakingSlot() throws Exception {
+        assertTrue(scheduler.acquire("holder", 0));
+
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        Thread waiter = new Thread(() -> {
+            try {
+                scheduler.acquire("waiter", 0);
+            } catch (Throwable e) {
+                failure.set(e);
+            }
+        });
+        waiter.start();
+        awaitQueued(1);
+        waiter.interrupt();
+        waiter.join(5000);
+
+        assertInstanceOf(InterruptedException.class, failure.get());
+        assertEquals(0, scheduler.getQueued());
+        scheduler.release(0);
+        assertEquals(0, scheduler.getInFlight());
+    }
+
+    @Test
+    void disabledSchedulerAdmitsEverything() throws InterruptedException {
+        scheduler.setEnabled(false);
+        assertTrue(scheduler.acquire("a", 0));
+        assertTrue(scheduler.acquire("a", 0));
+        assertEquals(0, scheduler.getInFlight());
+    }
+
+    /**
+     * Queue a request for the tenant; once granted it records the tenant and releases its slot
+     */
+    private Thread startWaiter(String tenant, List<String> served) {
+        Thread waiter = new Thread(() -> {
+            try {
+                if (scheduler.acquire(tenant, 0)) {
+                    served.add(tenant);
+                    scheduler.release(0);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        waiter.start();
+        return waiter;
+    }
+
+    private void awaitQueued(int expected) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (scheduler.getQueued() < expected) {
+            if (System.currentTimeMillis() > deadline) {
+                throw new AssertionError("Expected " + expected + " queued requests, got " + scheduler.getQueued());
+            }
+            Thread.sleep(1);
+        }
+    }
+}